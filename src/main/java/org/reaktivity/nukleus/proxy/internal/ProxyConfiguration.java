@@ -19,12 +19,33 @@ import org.reaktivity.reaktor.nukleus.Configuration;
 
 public class ProxyConfiguration extends Configuration
 {
+    public static final IntPropertyDef PROXY_HOST_CACHE_CAPACITY;
+    public static final LongPropertyDef PROXY_HOST_CACHE_TTL;
+    public static final LongPropertyDef PROXY_HOST_CACHE_NEGATIVE_TTL;
+    public static final LongPropertyDef PROXY_HEADER_TIMEOUT;
+    public static final LongPropertyDef PROXY_HEADER_FLUSH_DELAY;
+    public static final IntPropertyDef PROXY_HEADER_ARENA_CELL_CAPACITY;
+    public static final IntPropertyDef PROXY_HEADER_ARENA_CELLS;
+    public static final BooleanPropertyDef PROXY_RELAY_IN_PLACE;
+    public static final IntPropertyDef PROXY_FAILOVER_RETRIES;
+    public static final IntPropertyDef PROXY_RATE_LIMIT_CAPACITY;
+
     private static final ConfigurationDef CONFIG_DEF;
 
     static
     {
         final String prefix = String.format("nukleus.%s", ProxyNukleus.NAME);
         final ConfigurationDef config = new ConfigurationDef(prefix);
+        PROXY_HOST_CACHE_CAPACITY = config.property("host.cache.capacity", 1024);
+        PROXY_HOST_CACHE_TTL = config.property("host.cache.ttl", 30_000L);
+        PROXY_HOST_CACHE_NEGATIVE_TTL = config.property("host.cache.negative.ttl", 5_000L);
+        PROXY_HEADER_TIMEOUT = config.property("header.timeout", 10_000L);
+        PROXY_HEADER_FLUSH_DELAY = config.property("header.flush.delay", 0L);
+        PROXY_HEADER_ARENA_CELL_CAPACITY = config.property("header.arena.cell.capacity", 512);
+        PROXY_HEADER_ARENA_CELLS = config.property("header.arena.cells", 4096);
+        PROXY_RELAY_IN_PLACE = config.property("relay.in.place", false);
+        PROXY_FAILOVER_RETRIES = config.property("failover.retries", 0);
+        PROXY_RATE_LIMIT_CAPACITY = config.property("rate.limit.capacity", 4096);
         CONFIG_DEF = config;
     }
 
@@ -33,4 +54,54 @@ public class ProxyConfiguration extends Configuration
     {
         super(CONFIG_DEF, config);
     }
+
+    public int hostCacheCapacity()
+    {
+        return PROXY_HOST_CACHE_CAPACITY.getAsInt(this);
+    }
+
+    public long hostCacheTtl()
+    {
+        return PROXY_HOST_CACHE_TTL.getAsLong(this);
+    }
+
+    public long hostCacheNegativeTtl()
+    {
+        return PROXY_HOST_CACHE_NEGATIVE_TTL.getAsLong(this);
+    }
+
+    public long headerTimeout()
+    {
+        return PROXY_HEADER_TIMEOUT.getAsLong(this);
+    }
+
+    public long headerFlushDelay()
+    {
+        return PROXY_HEADER_FLUSH_DELAY.getAsLong(this);
+    }
+
+    public int headerArenaCellCapacity()
+    {
+        return PROXY_HEADER_ARENA_CELL_CAPACITY.getAsInt(this);
+    }
+
+    public int headerArenaCells()
+    {
+        return PROXY_HEADER_ARENA_CELLS.getAsInt(this);
+    }
+
+    public boolean relayInPlace()
+    {
+        return PROXY_RELAY_IN_PLACE.getAsBoolean(this);
+    }
+
+    public int failoverRetries()
+    {
+        return PROXY_FAILOVER_RETRIES.getAsInt(this);
+    }
+
+    public int rateLimitCapacity()
+    {
+        return PROXY_RATE_LIMIT_CAPACITY.getAsInt(this);
+    }
 }
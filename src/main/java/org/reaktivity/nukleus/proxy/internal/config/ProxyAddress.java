@@ -15,6 +15,8 @@
  */
 package org.reaktivity.nukleus.proxy.internal.config;
 
+import java.util.Objects;
+
 public class ProxyAddress
 {
     public final String host;
@@ -28,4 +30,26 @@ public class ProxyAddress
         this.host = host;
         this.port = port;
     }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        boolean equals = this == obj;
+
+        if (!equals && obj instanceof ProxyAddress)
+        {
+            ProxyAddress that = (ProxyAddress) obj;
+            equals = Objects.equals(host, that.host) &&
+                    Objects.equals(port, that.port);
+        }
+
+        return equals;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(host, port);
+    }
 }
@@ -0,0 +1,567 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.config;
+
+import static java.util.Collections.emptyMap;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.BALANCE_LEAST_CONNECTIONS;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.BALANCE_SOURCE_HASH;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.BALANCE_SOURCE_PORT_HASH;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.BALANCE_WEIGHTED;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.WEIGHT_DEFAULT;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.agrona.DirectBuffer;
+import org.reaktivity.nukleus.proxy.internal.types.OctetsFW;
+import org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFW;
+import org.reaktivity.nukleus.proxy.internal.types.StringFW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
+import org.reaktivity.reaktor.config.Route;
+
+public final class ProxyBalancer
+{
+    private static final int BALANCE_NONE = 0;
+    private static final int BALANCE_WEIGHTED_ROUND_ROBIN = 1;
+    private static final int BALANCE_LEAST_ACTIVE = 2;
+    private static final int BALANCE_HASH_SOURCE = 3;
+    private static final int BALANCE_HASH_SOURCE_PORT = 4;
+
+    private static final int RING_POINTS_PER_WEIGHT = 64;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static final int RESETS_BEFORE_UNHEALTHY = 3;
+    private static final long[] UNHEALTHY_BACKOFF_NANOS =
+    {
+        TimeUnit.SECONDS.toNanos(1L),
+        TimeUnit.SECONDS.toNanos(2L),
+        TimeUnit.SECONDS.toNanos(5L),
+        TimeUnit.SECONDS.toNanos(10L),
+        TimeUnit.SECONDS.toNanos(30L)
+    };
+
+    private final int balance;
+    private final ProxyRoute[] routes;
+    private final int[][] pools;
+    private final int[] weights;
+    private final int[] currents;
+    private final int[] actives;
+    private final long[][] ringPoints;
+    private final int[][] ringMembers;
+    private final int[] resets;
+    private final int[] backoffs;
+    private final long[] unhealthyUntil;
+    private final LongSupplier clock;
+
+    private int unhealthy;
+
+    ProxyBalancer(
+        ProxyOptions options,
+        List<Route> configs,
+        List<ProxyRoute> routes,
+        Route exitConfig,
+        ProxyRoute exit)
+    {
+        this(options != null ? options.balance : null,
+            routes(routes, exit),
+            exits(configs, exitConfig),
+            weights(options, configs, exitConfig),
+            pools(options, configs),
+            System::nanoTime);
+    }
+
+    ProxyBalancer(
+        String balance,
+        ProxyRoute[] routes,
+        String[] exits,
+        int[] weights,
+        int[][] pools,
+        LongSupplier clock)
+    {
+        this.balance = balance(balance);
+        this.routes = routes;
+        this.weights = weights;
+        this.pools = pools;
+        this.currents = new int[routes.length];
+        this.actives = new int[routes.length];
+        this.ringPoints = new long[routes.length][];
+        this.ringMembers = new int[routes.length][];
+        this.resets = new int[routes.length];
+        this.backoffs = new int[routes.length];
+        this.unhealthyUntil = new long[routes.length];
+        this.clock = clock;
+
+        if (this.balance == BALANCE_HASH_SOURCE || this.balance == BALANCE_HASH_SOURCE_PORT)
+        {
+            for (int index = 0; index < pools.length; index++)
+            {
+                final int[] pool = pools[index];
+                if (pool.length > 1 && pool[0] == index)
+                {
+                    ring(pool, exits, weights, index);
+                }
+            }
+        }
+    }
+
+    public boolean pooled(
+        int route)
+    {
+        return pools[route].length > 1;
+    }
+
+    public void onOpened(
+        int route)
+    {
+        actives[route]++;
+    }
+
+    public void onClosed(
+        int route)
+    {
+        actives[route]--;
+    }
+
+    public void onAccepted(
+        int route)
+    {
+        resets[route] = 0;
+        backoffs[route] = 0;
+    }
+
+    public void onRejected(
+        int route)
+    {
+        resets[route]++;
+
+        if (resets[route] >= RESETS_BEFORE_UNHEALTHY)
+        {
+            final int backoff = Math.min(backoffs[route], UNHEALTHY_BACKOFF_NANOS.length - 1);
+
+            if (unhealthyUntil[route] == 0L)
+            {
+                unhealthy++;
+            }
+
+            unhealthyUntil[route] = clock.getAsLong() + UNHEALTHY_BACKOFF_NANOS[backoff];
+            backoffs[route] = backoff + 1;
+            resets[route] = 0;
+        }
+    }
+
+    public ProxyRoute failover(
+        int route)
+    {
+        final int[] pool = pools[route];
+
+        int position = 0;
+        while (position < pool.length && pool[position] != route)
+        {
+            position++;
+        }
+
+        ProxyRoute failover = null;
+
+        for (int attempt = 1; attempt < pool.length && failover == null; attempt++)
+        {
+            final int member = pool[(position + attempt) % pool.length];
+            if (healthy(member))
+            {
+                failover = routes[member];
+            }
+        }
+
+        return failover;
+    }
+
+    ProxyRoute select(
+        ProxyRoute resolved,
+        ProxyBeginExFW beginEx)
+    {
+        ProxyRoute selected = resolved;
+
+        if (resolved != null)
+        {
+            final int[] pool = pools[resolved.index];
+
+            if (pool.length > 1)
+            {
+                switch (balance)
+                {
+                case BALANCE_WEIGHTED_ROUND_ROBIN:
+                    selected = routes[selectWeighted(pool)];
+                    break;
+                case BALANCE_LEAST_ACTIVE:
+                    selected = routes[selectLeastActive(pool)];
+                    break;
+                case BALANCE_HASH_SOURCE:
+                case BALANCE_HASH_SOURCE_PORT:
+                    selected = routes[selectHashed(pool[0], resolved.index, beginEx)];
+                    break;
+                default:
+                    break;
+                }
+
+                if (unhealthy != 0 && !healthy(selected.index))
+                {
+                    final ProxyRoute failover = failover(selected.index);
+                    selected = failover != null ? failover : selected;
+                }
+            }
+        }
+
+        return selected;
+    }
+
+    boolean healthy(
+        int route)
+    {
+        final long until = unhealthyUntil[route];
+        final boolean healthy = until == 0L || clock.getAsLong() - until >= 0L;
+
+        if (until != 0L && healthy)
+        {
+            unhealthyUntil[route] = 0L;
+            unhealthy--;
+        }
+
+        return healthy;
+    }
+
+    int active(
+        int route)
+    {
+        return actives[route];
+    }
+
+    private int selectWeighted(
+        int[] pool)
+    {
+        int selected = pool[0];
+        int total = 0;
+
+        for (int member : pool)
+        {
+            currents[member] += weights[member];
+            total += weights[member];
+
+            if (currents[member] > currents[selected])
+            {
+                selected = member;
+            }
+        }
+
+        currents[selected] -= total;
+
+        return selected;
+    }
+
+    private int selectLeastActive(
+        int[] pool)
+    {
+        int selected = pool[0];
+
+        for (int member : pool)
+        {
+            if ((long) actives[member] * weights[selected] < (long) actives[selected] * weights[member])
+            {
+                selected = member;
+            }
+        }
+
+        return selected;
+    }
+
+    private int selectHashed(
+        int ring,
+        int resolved,
+        ProxyBeginExFW beginEx)
+    {
+        final ProxyAddressFW address = beginEx != null ? beginEx.address() : null;
+        final long hash = address != null ? hashSource(address, balance == BALANCE_HASH_SOURCE_PORT) : 0L;
+
+        int selected = resolved;
+
+        if (hash != 0L)
+        {
+            final long[] points = ringPoints[ring];
+            int point = Arrays.binarySearch(points, hash);
+            if (point < 0)
+            {
+                point = -point - 1;
+            }
+            selected = ringMembers[ring][point < points.length ? point : 0];
+        }
+
+        return selected;
+    }
+
+    private void ring(
+        int[] pool,
+        String[] exits,
+        int[] weights,
+        int index)
+    {
+        int size = 0;
+        for (int member : pool)
+        {
+            size += weights[member] * RING_POINTS_PER_WEIGHT;
+        }
+
+        final long[] points = new long[size];
+        final Integer[] order = new Integer[size];
+        final int[] owners = new int[size];
+
+        int point = 0;
+        for (int member : pool)
+        {
+            final long seed = hashExit(exits[member]);
+            final int replicas = weights[member] * RING_POINTS_PER_WEIGHT;
+            for (int replica = 0; replica < replicas; replica++)
+            {
+                points[point] = mix(seed + (replica + 1) * GOLDEN_GAMMA);
+                owners[point] = member;
+                order[point] = point;
+                point++;
+            }
+        }
+
+        Arrays.sort(order, (a, b) -> Long.compare(points[a], points[b]));
+
+        final long[] sortedPoints = new long[size];
+        final int[] sortedMembers = new int[size];
+        for (int i = 0; i < size; i++)
+        {
+            sortedPoints[i] = points[order[i]];
+            sortedMembers[i] = owners[order[i]];
+        }
+
+        ringPoints[index] = sortedPoints;
+        ringMembers[index] = sortedMembers;
+    }
+
+    private static long hashSource(
+        ProxyAddressFW address,
+        boolean includePort)
+    {
+        long hash = 0L;
+
+        switch (address.kind())
+        {
+        case INET:
+            final StringFW host = address.inet().source();
+            hash = hashBytes(host.buffer(), host.offset() + host.fieldSizeLength(), host.length());
+            hash = includePort ? hashPort(hash, address.inet().sourcePort()) : hash;
+            break;
+        case INET4:
+            hash = hashOctets(address.inet4().source());
+            hash = includePort ? hashPort(hash, address.inet4().sourcePort()) : hash;
+            break;
+        case INET6:
+            hash = hashOctets(address.inet6().source());
+            hash = includePort ? hashPort(hash, address.inet6().sourcePort()) : hash;
+            break;
+        case UNIX:
+            hash = hashOctets(address.unix().source());
+            break;
+        default:
+            break;
+        }
+
+        return hash != 0L ? mix(hash) : 0L;
+    }
+
+    private static long hashOctets(
+        OctetsFW octets)
+    {
+        return hashBytes(octets.buffer(), octets.offset(), octets.sizeof());
+    }
+
+    private static long hashBytes(
+        DirectBuffer buffer,
+        int offset,
+        int length)
+    {
+        long hash = FNV_OFFSET_BASIS;
+
+        for (int index = 0; index < length; index++)
+        {
+            hash ^= buffer.getByte(offset + index) & 0xff;
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    private static long hashPort(
+        long hash,
+        int port)
+    {
+        hash ^= port & 0xff;
+        hash *= FNV_PRIME;
+        hash ^= (port >> 8) & 0xff;
+        hash *= FNV_PRIME;
+        return hash;
+    }
+
+    private static long hashExit(
+        String exit)
+    {
+        long hash = FNV_OFFSET_BASIS;
+
+        if (exit != null)
+        {
+            for (int index = 0; index < exit.length(); index++)
+            {
+                hash ^= exit.charAt(index);
+                hash *= FNV_PRIME;
+            }
+        }
+
+        return hash;
+    }
+
+    private static long mix(
+        long hash)
+    {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static ProxyRoute[] routes(
+        List<ProxyRoute> routes,
+        ProxyRoute exit)
+    {
+        final ProxyRoute[] indexed = new ProxyRoute[routes.size() + 1];
+
+        for (ProxyRoute route : routes)
+        {
+            indexed[route.index] = route;
+        }
+
+        if (exit != null)
+        {
+            indexed[exit.index] = exit;
+        }
+
+        return indexed;
+    }
+
+    private static String[] exits(
+        List<Route> configs,
+        Route exitConfig)
+    {
+        final String[] exits = new String[configs.size() + 1];
+
+        for (int index = 0; index < configs.size(); index++)
+        {
+            exits[index] = configs.get(index).exit;
+        }
+
+        exits[configs.size()] = exitConfig != null ? exitConfig.exit : null;
+
+        return exits;
+    }
+
+    private static int[] weights(
+        ProxyOptions options,
+        List<Route> configs,
+        Route exitConfig)
+    {
+        final Map<String, Integer> weightsByExit = options != null ? options.weights : emptyMap();
+        final int[] weights = new int[configs.size() + 1];
+
+        for (int index = 0; index < configs.size(); index++)
+        {
+            weights[index] = weightsByExit.getOrDefault(configs.get(index).exit, WEIGHT_DEFAULT);
+        }
+
+        weights[configs.size()] = exitConfig != null
+                ? weightsByExit.getOrDefault(exitConfig.exit, WEIGHT_DEFAULT)
+                : WEIGHT_DEFAULT;
+
+        return weights;
+    }
+
+    private static int[][] pools(
+        ProxyOptions options,
+        List<Route> configs)
+    {
+        final boolean balanced = options != null && options.balance != null;
+        final int[][] pools = new int[configs.size() + 1][];
+
+        for (int index = 0; index < pools.length; index++)
+        {
+            pools[index] = balanced && index < configs.size() ? pool(configs, index) : new int[] { index };
+        }
+
+        return pools;
+    }
+
+    private static int[] pool(
+        List<Route> configs,
+        int index)
+    {
+        final List<?> when = configs.get(index).when;
+        final int[] pool = new int[configs.size()];
+        int size = 0;
+
+        for (int member = 0; member < configs.size(); member++)
+        {
+            if (when.equals(configs.get(member).when))
+            {
+                pool[size++] = member;
+            }
+        }
+
+        return Arrays.copyOf(pool, size);
+    }
+
+    private static int balance(
+        String name)
+    {
+        int balance = BALANCE_NONE;
+
+        if (name != null)
+        {
+            switch (name)
+            {
+            case BALANCE_WEIGHTED:
+                balance = BALANCE_WEIGHTED_ROUND_ROBIN;
+                break;
+            case BALANCE_LEAST_CONNECTIONS:
+                balance = BALANCE_LEAST_ACTIVE;
+                break;
+            case BALANCE_SOURCE_HASH:
+                balance = BALANCE_HASH_SOURCE;
+                break;
+            case BALANCE_SOURCE_PORT_HASH:
+                balance = BALANCE_HASH_SOURCE_PORT;
+                break;
+            default:
+                throw new IllegalArgumentException("Unexpected balance: " + name);
+            }
+        }
+
+        return balance;
+    }
+}
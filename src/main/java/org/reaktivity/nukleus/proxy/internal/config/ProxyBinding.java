@@ -18,6 +18,7 @@ package org.reaktivity.nukleus.proxy.internal.config;
 import static java.util.stream.Collectors.toList;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
 import org.reaktivity.reaktor.config.Binding;
@@ -31,6 +32,9 @@ public final class ProxyBinding
     public final ProxyOptions options;
     public final List<ProxyRoute> routes;
     public final ProxyRoute exit;
+    public final ProxyBalancer balancer;
+
+    private final ProxyRouteTable table;
 
     public ProxyBinding(
         Binding binding)
@@ -39,17 +43,18 @@ public final class ProxyBinding
         this.entry = binding.entry;
         this.kind = binding.kind;
         this.options = ProxyOptions.class.cast(binding.options);
-        this.routes = binding.routes.stream().map(ProxyRoute::new).collect(toList());
-        this.exit = binding.exit != null ? new ProxyRoute(binding.exit) : null;
+        this.routes = IntStream.range(0, binding.routes.size())
+            .mapToObj(i -> new ProxyRoute(binding.routes.get(i), i))
+            .collect(toList());
+        this.exit = binding.exit != null ? new ProxyRoute(binding.exit, routes.size()) : null;
+        this.table = new ProxyRouteTable(routes, exit);
+        this.balancer = new ProxyBalancer(options, binding.routes, routes, binding.exit, exit);
     }
 
     public ProxyRoute resolve(
         long authorization,
         ProxyBeginExFW beginEx)
     {
-        return routes.stream()
-                .filter(r -> r.when.stream().allMatch(c -> c.matches(beginEx)))
-                .findFirst()
-                .orElse(exit);
+        return balancer.select(table.resolve(beginEx), beginEx);
     }
 }
@@ -15,6 +15,8 @@
  */
 package org.reaktivity.nukleus.proxy.internal.config;
 
+import java.util.Objects;
+
 import org.reaktivity.reaktor.config.Condition;
 
 public final class ProxyCondition extends Condition
@@ -38,4 +40,29 @@ public final class ProxyCondition extends Condition
         this.destination = destination;
         this.info = info;
     }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        boolean equals = this == obj;
+
+        if (!equals && obj instanceof ProxyCondition)
+        {
+            ProxyCondition that = (ProxyCondition) obj;
+            equals = Objects.equals(transport, that.transport) &&
+                    Objects.equals(family, that.family) &&
+                    Objects.equals(source, that.source) &&
+                    Objects.equals(destination, that.destination) &&
+                    Objects.equals(info, that.info);
+        }
+
+        return equals;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(transport, family, source, destination, info);
+    }
 }
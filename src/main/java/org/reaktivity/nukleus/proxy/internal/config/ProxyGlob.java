@@ -0,0 +1,143 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.config;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.agrona.DirectBuffer;
+import org.reaktivity.nukleus.proxy.internal.types.String16FW;
+
+final class ProxyGlob
+{
+    private static final byte WILDCARD = '*';
+
+    private final byte[] pattern;
+    private final int wildcards;
+    private final boolean suffix;
+
+    ProxyGlob(
+        String pattern)
+    {
+        this.pattern = pattern.getBytes(UTF_8);
+
+        int wildcards = 0;
+        for (int i = 0; i < this.pattern.length; i++)
+        {
+            if (this.pattern[i] == WILDCARD)
+            {
+                wildcards++;
+            }
+        }
+
+        this.wildcards = wildcards;
+        this.suffix = wildcards == 1 && this.pattern[0] == WILDCARD;
+    }
+
+    boolean matches(
+        String16FW host)
+    {
+        final DirectBuffer value = host.value();
+        return value != null && matches(value, 0, host.length());
+    }
+
+    boolean matches(
+        DirectBuffer buffer,
+        int offset,
+        int length)
+    {
+        boolean matches;
+
+        if (wildcards == 0)
+        {
+            matches = length == pattern.length && equals(buffer, offset, 0, length);
+        }
+        else if (suffix)
+        {
+            final int suffixLength = pattern.length - 1;
+            matches = length >= suffixLength && equals(buffer, offset + length - suffixLength, 1, suffixLength);
+        }
+        else
+        {
+            matches = matchesWildcards(buffer, offset, length);
+        }
+
+        return matches;
+    }
+
+    static boolean isLiteral(
+        String pattern)
+    {
+        return pattern.indexOf(WILDCARD) == -1;
+    }
+
+    private boolean equals(
+        DirectBuffer buffer,
+        int offset,
+        int patternOffset,
+        int length)
+    {
+        boolean equals = true;
+
+        for (int i = 0; equals && i < length; i++)
+        {
+            equals = buffer.getByte(offset + i) == pattern[patternOffset + i];
+        }
+
+        return equals;
+    }
+
+    private boolean matchesWildcards(
+        DirectBuffer buffer,
+        int offset,
+        int length)
+    {
+        int patternAt = 0;
+        int textAt = 0;
+        int wildcardAt = -1;
+        int resumeAt = 0;
+        boolean matches = true;
+
+        while (matches && textAt < length)
+        {
+            if (patternAt < pattern.length && pattern[patternAt] == WILDCARD)
+            {
+                wildcardAt = patternAt++;
+                resumeAt = textAt;
+            }
+            else if (patternAt < pattern.length && pattern[patternAt] == buffer.getByte(offset + textAt))
+            {
+                patternAt++;
+                textAt++;
+            }
+            else if (wildcardAt != -1)
+            {
+                patternAt = wildcardAt + 1;
+                textAt = ++resumeAt;
+            }
+            else
+            {
+                matches = false;
+            }
+        }
+
+        while (matches && patternAt < pattern.length && pattern[patternAt] == WILDCARD)
+        {
+            patternAt++;
+        }
+
+        return matches && patternAt == pattern.length;
+    }
+}
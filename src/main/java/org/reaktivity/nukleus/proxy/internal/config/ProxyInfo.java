@@ -15,6 +15,9 @@
  */
 package org.reaktivity.nukleus.proxy.internal.config;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 public class ProxyInfo
 {
     public final String alpn;
@@ -40,4 +43,29 @@ public class ProxyInfo
         this.namespace = namespace;
         this.secure = secure;
     }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        boolean equals = this == obj;
+
+        if (!equals && obj instanceof ProxyInfo)
+        {
+            ProxyInfo that = (ProxyInfo) obj;
+            equals = Objects.equals(alpn, that.alpn) &&
+                    Objects.equals(authority, that.authority) &&
+                    Objects.equals(namespace, that.namespace) &&
+                    Objects.equals(secure, that.secure) &&
+                    Arrays.equals(identity, that.identity);
+        }
+
+        return equals;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Objects.hash(alpn, authority, namespace, secure) + Arrays.hashCode(identity);
+    }
 }
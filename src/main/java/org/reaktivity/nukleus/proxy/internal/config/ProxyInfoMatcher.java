@@ -0,0 +1,228 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.config;
+
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType.ALPN;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType.AUTHORITY;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType.IDENTITY;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType.NAMESPACE;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoType.CIPHER;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoType.KEY;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoType.NAME;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoType.PROTOCOL;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoType.SIGNATURE;
+
+import java.util.Arrays;
+
+import org.agrona.DirectBuffer;
+import org.reaktivity.nukleus.proxy.internal.types.Array32FW;
+import org.reaktivity.nukleus.proxy.internal.types.Flyweight;
+import org.reaktivity.nukleus.proxy.internal.types.ProxyInfoFW;
+import org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoFW;
+import org.reaktivity.nukleus.proxy.internal.types.String16FW;
+import org.reaktivity.nukleus.proxy.internal.types.String8FW;
+
+final class ProxyInfoMatcher
+{
+    private static final int MAX_REQUIREMENTS = 9;
+
+    private final ProxyInfoFW infoRO = new ProxyInfoFW();
+
+    private final int[] keys;
+    private final byte[][] values;
+    private final long required;
+
+    ProxyInfoMatcher(
+        ProxyInfo info)
+    {
+        final int[] keys = new int[MAX_REQUIREMENTS];
+        final byte[][] values = new byte[MAX_REQUIREMENTS][];
+        int count = 0;
+
+        if (info.alpn != null)
+        {
+            keys[count] = ALPN.value();
+            values[count++] = encoded(new String8FW(info.alpn));
+        }
+
+        if (info.authority != null)
+        {
+            keys[count] = AUTHORITY.value();
+            values[count++] = encoded(new String16FW(info.authority));
+        }
+
+        if (info.identity != null)
+        {
+            keys[count] = IDENTITY.value();
+            values[count++] = info.identity.clone();
+        }
+
+        if (info.namespace != null)
+        {
+            keys[count] = NAMESPACE.value();
+            values[count++] = encoded(new String16FW(info.namespace));
+        }
+
+        if (info.secure != null)
+        {
+            if (info.secure.version != null)
+            {
+                keys[count] = PROTOCOL.value();
+                values[count++] = encoded(new String8FW(info.secure.version));
+            }
+
+            if (info.secure.cipher != null)
+            {
+                keys[count] = CIPHER.value();
+                values[count++] = encoded(new String8FW(info.secure.cipher));
+            }
+
+            if (info.secure.key != null)
+            {
+                keys[count] = KEY.value();
+                values[count++] = encoded(new String8FW(info.secure.key));
+            }
+
+            if (info.secure.name != null)
+            {
+                keys[count] = NAME.value();
+                values[count++] = encoded(new String16FW(info.secure.name));
+            }
+
+            if (info.secure.signature != null)
+            {
+                keys[count] = SIGNATURE.value();
+                values[count++] = encoded(new String8FW(info.secure.signature));
+            }
+        }
+
+        this.keys = Arrays.copyOf(keys, count);
+        this.values = Arrays.copyOf(values, count);
+        this.required = (1L << count) - 1L;
+    }
+
+    boolean matches(
+        Array32FW<ProxyInfoFW> infos)
+    {
+        final DirectBuffer items = infos.items();
+        final int limit = items.capacity();
+
+        long satisfied = 0L;
+        int progress = 0;
+
+        for (int count = infos.fieldCount(); count > 0 && satisfied != required; count--)
+        {
+            final ProxyInfoFW info = infoRO.wrap(items, progress, limit);
+            satisfied |= satisfies(info);
+            progress = info.limit();
+        }
+
+        return satisfied == required;
+    }
+
+    private long satisfies(
+        ProxyInfoFW info)
+    {
+        long satisfies = 0L;
+
+        switch (info.kind())
+        {
+        case ALPN:
+            satisfies = satisfies(ALPN.value(), info.alpn());
+            break;
+        case AUTHORITY:
+            satisfies = satisfies(AUTHORITY.value(), info.authority());
+            break;
+        case IDENTITY:
+            satisfies = satisfies(IDENTITY.value(), info.identity().value());
+            break;
+        case NAMESPACE:
+            satisfies = satisfies(NAMESPACE.value(), info.namespace());
+            break;
+        case SECURE:
+            final ProxySecureInfoFW secure = info.secure();
+            switch (secure.kind())
+            {
+            case PROTOCOL:
+                satisfies = satisfies(PROTOCOL.value(), secure.protocol());
+                break;
+            case CIPHER:
+                satisfies = satisfies(CIPHER.value(), secure.cipher());
+                break;
+            case KEY:
+                satisfies = satisfies(KEY.value(), secure.key());
+                break;
+            case NAME:
+                satisfies = satisfies(NAME.value(), secure.name());
+                break;
+            case SIGNATURE:
+                satisfies = satisfies(SIGNATURE.value(), secure.signature());
+                break;
+            default:
+                break;
+            }
+            break;
+        default:
+            break;
+        }
+
+        return satisfies;
+    }
+
+    private long satisfies(
+        int key,
+        Flyweight value)
+    {
+        long satisfies = 0L;
+
+        for (int index = 0; index < keys.length; index++)
+        {
+            if (keys[index] == key)
+            {
+                satisfies = equalBytes(values[index], value) ? 1L << index : 0L;
+                break;
+            }
+        }
+
+        return satisfies;
+    }
+
+    private static boolean equalBytes(
+        byte[] expected,
+        Flyweight actual)
+    {
+        final DirectBuffer buffer = actual.buffer();
+        final int offset = actual.offset();
+        final int length = actual.sizeof();
+
+        boolean equal = length == expected.length;
+
+        for (int index = 0; equal && index < length; index++)
+        {
+            equal = buffer.getByte(offset + index) == expected[index];
+        }
+
+        return equal;
+    }
+
+    private static byte[] encoded(
+        Flyweight value)
+    {
+        final byte[] encoded = new byte[value.sizeof()];
+        value.buffer().getBytes(value.offset(), encoded);
+        return encoded;
+    }
+}
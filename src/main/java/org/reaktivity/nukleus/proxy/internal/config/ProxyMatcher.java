@@ -15,55 +15,58 @@
  */
 package org.reaktivity.nukleus.proxy.internal.config;
 
-import static java.lang.Integer.parseInt;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.INET;
 import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.INET4;
 import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.INET6;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.NONE;
 import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.UNIX;
-import static org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType.ALPN;
-import static org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType.AUTHORITY;
-import static org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType.IDENTITY;
-import static org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType.NAMESPACE;
-import static org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType.SECURE;
-import static org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoType.CIPHER;
-import static org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoType.KEY;
-import static org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoType.NAME;
-import static org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoType.PROTOCOL;
-import static org.reaktivity.nukleus.proxy.internal.types.ProxySecureInfoType.SIGNATURE;
-
-import java.net.InetAddress;
-import java.net.UnknownHostException;
+
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.agrona.DirectBuffer;
-import org.agrona.LangUtil;
-import org.agrona.collections.Int2ObjectHashMap;
-import org.agrona.collections.MutableInteger;
-import org.agrona.concurrent.UnsafeBuffer;
+
 import org.reaktivity.nukleus.proxy.internal.types.Array32FW;
 import org.reaktivity.nukleus.proxy.internal.types.OctetsFW;
 import org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFW;
 import org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily;
 import org.reaktivity.nukleus.proxy.internal.types.ProxyAddressProtocol;
 import org.reaktivity.nukleus.proxy.internal.types.ProxyInfoFW;
-import org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType;
-import org.reaktivity.nukleus.proxy.internal.types.String16FW;
-import org.reaktivity.nukleus.proxy.internal.types.String8FW;
 import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
 
 public final class ProxyMatcher
 {
+    static final int NO_PORT = -1;
+
+    private static final int INET4_ADDRESS_BYTES = 4;
+    private static final int INET6_ADDRESS_BYTES = 16;
+
+    final ProxyAddressFamily family;
+    final ProxyAddressProtocol transport;
+    final boolean addressed;
+    final int destinationPort;
+    final ProxyPrefix sourcePrefix;
+    final ProxyPrefix destinationPrefix;
+    final String sourceHost;
+    final String destinationHost;
+
     private final Predicate<ProxyAddressFW> matchAddress;
     private final Predicate<Array32FW<ProxyInfoFW>> matchInfos;
 
     public ProxyMatcher(
         ProxyCondition condition)
     {
+        this.family = condition.family != null ? ProxyAddressFamily.valueOf(condition.family.toUpperCase()) : null;
+        this.transport = condition.transport != null ? ProxyAddressProtocol.valueOf(condition.transport.toUpperCase()) : null;
+        this.addressed = condition.source != null || condition.destination != null;
+        this.destinationPort = condition.destination != null && condition.destination.port != null
+                ? condition.destination.port
+                : NO_PORT;
+        this.sourcePrefix = condition.source != null ? inetPrefix(family, condition.source.host) : null;
+        this.destinationPrefix = condition.destination != null ? inetPrefix(family, condition.destination.host) : null;
+        this.sourceHost = condition.source != null ? inetHost(family, condition.source.host) : null;
+        this.destinationHost = condition.destination != null ? inetHost(family, condition.destination.host) : null;
+
         Predicate<ProxyAddressFW> matchAddress = null;
 
         if (condition.family != null)
@@ -74,13 +77,13 @@ public final class ProxyMatcher
 
         if (condition.source != null)
         {
-            Predicate<ProxyAddressFW> matchSource = matchSource(condition.source);
+            Predicate<ProxyAddressFW> matchSource = matchSource(condition.source, sourcePrefix);
             matchAddress = matchAddress != null ? matchAddress.and(matchSource) : matchSource;
         }
 
         if (condition.destination != null)
         {
-            Predicate<ProxyAddressFW> matchDestination = matchDestination(condition.destination);
+            Predicate<ProxyAddressFW> matchDestination = matchDestination(condition.destination, destinationPrefix);
             matchAddress = matchAddress != null ? matchAddress.and(matchDestination) : matchDestination;
         }
 
@@ -91,7 +94,7 @@ public final class ProxyMatcher
         }
 
         this.matchAddress = matchAddress != null ? matchAddress : a -> true;
-        this.matchInfos = condition.info != null ? matchInfos(condition.info) : i -> true;
+        this.matchInfos = condition.info != null ? new ProxyInfoMatcher(condition.info)::matches : i -> true;
     }
 
     public boolean matches(
@@ -100,6 +103,24 @@ public final class ProxyMatcher
         return matchAddress.test(beginEx.address()) && matchInfos.test(beginEx.infos());
     }
 
+    boolean admits(
+        ProxyAddressFamily kind,
+        ProxyAddressProtocol protocol)
+    {
+        boolean admits = family == null || family == kind;
+
+        if (kind == NONE)
+        {
+            admits &= !addressed && transport == null;
+        }
+        else
+        {
+            admits &= transport == null || transport == protocol;
+        }
+
+        return admits;
+    }
+
     private static Predicate<ProxyAddressFW> matchFamily(
         String family)
     {
@@ -108,12 +129,19 @@ public final class ProxyMatcher
     }
 
     private static Predicate<ProxyAddressFW> matchSource(
-        ProxyAddress address)
+        ProxyAddress address,
+        ProxyPrefix prefix)
     {
         Map<ProxyAddressFamily, Predicate<ProxyAddressFW>> matchers = new EnumMap<>(ProxyAddressFamily.class);
         matchers.put(INET, matchInetSource(address));
-        matchers.put(INET4, matchInet4Source(address));
-        matchers.put(INET6, matchInet6Source(address));
+        if (address.host == null || prefix != null && prefix.address.length == INET4_ADDRESS_BYTES)
+        {
+            matchers.put(INET4, matchInet4Source(address, prefix));
+        }
+        if (address.host == null || prefix != null && prefix.address.length == INET6_ADDRESS_BYTES)
+        {
+            matchers.put(INET6, matchInet6Source(address, prefix));
+        }
         matchers.put(UNIX, matchUnixSource(address));
         Predicate<ProxyAddressFW> reject = a -> false;
         return a -> matchers.getOrDefault(a.kind(), reject).test(a);
@@ -126,9 +154,8 @@ public final class ProxyMatcher
 
         if (address.host != null)
         {
-            final String regex = address.host.replaceAll("\\*", ".*").replaceAll("\\.", "\\.");
-            final Matcher matcher = Pattern.compile(regex).matcher("");
-            Predicate<ProxyAddressFW> matchHost = a -> matcher.reset(a.inet().source().asString()).matches();
+            final ProxyGlob glob = new ProxyGlob(address.host);
+            Predicate<ProxyAddressFW> matchHost = a -> glob.matches(a.inet().source());
             matchAddress = matchAddress != null ? matchAddress.and(matchHost) : matchHost;
         }
 
@@ -142,16 +169,14 @@ public final class ProxyMatcher
     }
 
     private static Predicate<ProxyAddressFW> matchInet4Source(
-        ProxyAddress address)
+        ProxyAddress address,
+        ProxyPrefix prefix)
     {
         Predicate<ProxyAddressFW> matchAddress = null;
 
-        if (address.host != null)
+        if (prefix != null)
         {
-            final String[] cidr = address.host.split("/");
-            final byte[] prefix = resolveHost(cidr[0]).getAddress();
-            final int length = cidr.length == 2 ? parseInt(cidr[1]) : 32;
-            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.inet4().source(), prefix, length);
+            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.inet4().source(), prefix);
             matchAddress = matchAddress != null ? matchAddress.and(matchHost) : matchHost;
         }
 
@@ -166,16 +191,14 @@ public final class ProxyMatcher
     }
 
     private static Predicate<ProxyAddressFW> matchInet6Source(
-        ProxyAddress address)
+        ProxyAddress address,
+        ProxyPrefix prefix)
     {
         Predicate<ProxyAddressFW> matchAddress = null;
 
-        if (address.host != null)
+        if (prefix != null)
         {
-            final String[] cidr = address.host.split("/");
-            final byte[] prefix = resolveHost(cidr[0]).getAddress();
-            final int length = cidr.length == 2 ? parseInt(cidr[1]) : 32;
-            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.inet6().source(), prefix, length);
+            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.inet6().source(), prefix);
             matchAddress = matchAddress != null ? matchAddress.and(matchHost) : matchHost;
         }
 
@@ -195,9 +218,9 @@ public final class ProxyMatcher
 
         if (address.host != null)
         {
-            final byte[] prefix = address.host.getBytes(UTF_8);
-            final int length = prefix.length;
-            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.unix().source(), prefix, length);
+            final byte[] path = address.host.getBytes(UTF_8);
+            final ProxyPrefix prefix = new ProxyPrefix(path, path.length * Byte.SIZE);
+            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.unix().source(), prefix);
             matchAddress = matchAddress != null ? matchAddress.and(matchHost) : matchHost;
         }
 
@@ -205,12 +228,19 @@ public final class ProxyMatcher
     }
 
     private static Predicate<ProxyAddressFW> matchDestination(
-        ProxyAddress address)
+        ProxyAddress address,
+        ProxyPrefix prefix)
     {
         Map<ProxyAddressFamily, Predicate<ProxyAddressFW>> matchers = new EnumMap<>(ProxyAddressFamily.class);
         matchers.put(INET, matchInetDestination(address));
-        matchers.put(INET4, matchInet4Destination(address));
-        matchers.put(INET6, matchInet6Destination(address));
+        if (address.host == null || prefix != null && prefix.address.length == INET4_ADDRESS_BYTES)
+        {
+            matchers.put(INET4, matchInet4Destination(address, prefix));
+        }
+        if (address.host == null || prefix != null && prefix.address.length == INET6_ADDRESS_BYTES)
+        {
+            matchers.put(INET6, matchInet6Destination(address, prefix));
+        }
         matchers.put(UNIX, matchUnixDestination(address));
         Predicate<ProxyAddressFW> reject = a -> false;
         return a -> matchers.getOrDefault(a.kind(), reject).test(a);
@@ -223,9 +253,8 @@ public final class ProxyMatcher
 
         if (address.host != null)
         {
-            final String regex = address.host.replaceAll("\\*", ".*").replaceAll("\\.", "\\.");
-            final Matcher matcher = Pattern.compile(regex).matcher("");
-            Predicate<ProxyAddressFW> matchHost = a -> matcher.reset(a.inet().destination().asString()).matches();
+            final ProxyGlob glob = new ProxyGlob(address.host);
+            Predicate<ProxyAddressFW> matchHost = a -> glob.matches(a.inet().destination());
             matchAddress = matchAddress != null ? matchAddress.and(matchHost) : matchHost;
         }
 
@@ -239,16 +268,14 @@ public final class ProxyMatcher
     }
 
     private static Predicate<ProxyAddressFW> matchInet4Destination(
-        ProxyAddress address)
+        ProxyAddress address,
+        ProxyPrefix prefix)
     {
         Predicate<ProxyAddressFW> matchAddress = null;
 
-        if (address.host != null)
+        if (prefix != null)
         {
-            final String[] cidr = address.host.split("/");
-            final byte[] prefix = resolveHost(cidr[0]).getAddress();
-            final int length = cidr.length == 2 ? parseInt(cidr[1]) : 32;
-            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.inet4().destination(), prefix, length);
+            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.inet4().destination(), prefix);
             matchAddress = matchAddress != null ? matchAddress.and(matchHost) : matchHost;
         }
 
@@ -262,16 +289,14 @@ public final class ProxyMatcher
     }
 
     private static Predicate<ProxyAddressFW> matchInet6Destination(
-        ProxyAddress address)
+        ProxyAddress address,
+        ProxyPrefix prefix)
     {
         Predicate<ProxyAddressFW> matchAddress = null;
 
-        if (address.host != null)
+        if (prefix != null)
         {
-            final String[] cidr = address.host.split("/");
-            final byte[] prefix = resolveHost(cidr[0]).getAddress();
-            final int length = cidr.length == 2 ? parseInt(cidr[1]) : 32;
-            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.inet6().destination(), prefix, length);
+            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.inet6().destination(), prefix);
             matchAddress = matchAddress != null ? matchAddress.and(matchHost) : matchHost;
         }
 
@@ -291,9 +316,9 @@ public final class ProxyMatcher
 
         if (address.host != null)
         {
-            final byte[] prefix = address.host.getBytes(UTF_8);
-            final int length = prefix.length;
-            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.unix().destination(), prefix, length);
+            final byte[] path = address.host.getBytes(UTF_8);
+            final ProxyPrefix prefix = new ProxyPrefix(path, path.length * Byte.SIZE);
+            Predicate<ProxyAddressFW> matchHost = a -> matchesAddressPrefix(a.unix().destination(), prefix);
             matchAddress = matchAddress != null ? matchAddress.and(matchHost) : matchHost;
         }
 
@@ -302,22 +327,26 @@ public final class ProxyMatcher
 
     private static boolean matchesAddressPrefix(
         OctetsFW address,
-        byte[] prefix,
-        int length)
+        ProxyPrefix prefix)
     {
-        boolean match = true;
-
-        for (int i = 0; length > 0; i++, length -= Byte.SIZE)
-        {
-            byte addressByte = address.buffer().getByte(address.offset() + i);
-            byte prefixByte = prefix[i];
-            int compareBits = Math.min(length, Byte.SIZE);
-            int compareMask = ((1 << compareBits) - 1) << (Byte.SIZE - compareBits);
+        return prefix.matches(address.buffer(), address.offset());
+    }
 
-            match &= (addressByte & compareMask) == (prefixByte & compareMask);
-        }
+    private static ProxyPrefix inetPrefix(
+        ProxyAddressFamily family,
+        String host)
+    {
+        return host != null && (ProxyPrefix.isAddress(host) || ProxyGlob.isLiteral(host)) &&
+                (family == null || family == INET4 || family == INET6)
+                ? ProxyPrefix.of(host)
+                : null;
+    }
 
-        return match;
+    private static String inetHost(
+        ProxyAddressFamily family,
+        String host)
+    {
+        return host != null && ProxyGlob.isLiteral(host) && (family == null || family == INET) ? host : null;
     }
 
     private static Predicate<ProxyAddressFW> matchTransport(
@@ -356,101 +385,4 @@ public final class ProxyMatcher
     {
         return a -> a.unix().protocol().get() == protocol;
     }
-
-    private static Predicate<Array32FW<ProxyInfoFW>> matchInfos(
-        ProxyInfo info)
-    {
-        Int2ObjectHashMap<Predicate<ProxyInfoFW>> matchers = new Int2ObjectHashMap<>();
-
-        if (info.alpn != null)
-        {
-            String8FW alpn = new String8FW(info.alpn);
-            matchers.put(ALPN.value(), i -> alpn.equals(i.alpn()));
-        }
-
-        if (info.authority != null)
-        {
-            String16FW authority = new String16FW(info.authority);
-            matchers.put(AUTHORITY.value(), i -> authority.equals(i.authority()));
-        }
-
-        if (info.identity != null)
-        {
-            DirectBuffer buffer = new UnsafeBuffer(info.identity);
-            OctetsFW identity = new OctetsFW().wrap(buffer, 0, buffer.capacity());
-            matchers.put(IDENTITY.value(), i -> identity.equals(i.identity().value()));
-        }
-
-        if (info.namespace != null)
-        {
-            String16FW namespace = new String16FW(info.namespace);
-            matchers.put(NAMESPACE.value(), i -> namespace.equals(i.namespace()));
-        }
-
-        if (info.secure != null)
-        {
-            if (info.secure.version != null)
-            {
-                String8FW version = new String8FW(info.secure.version);
-                matchers.put(PROTOCOL.value(), i -> version.equals(i.secure().protocol()));
-            }
-
-            if (info.secure.cipher != null)
-            {
-                String8FW cipher = new String8FW(info.secure.cipher);
-                matchers.put(CIPHER.value(), i -> cipher.equals(i.secure().cipher()));
-            }
-
-            if (info.secure.key != null)
-            {
-                String8FW key = new String8FW(info.secure.key);
-                matchers.put(KEY.value(), i -> key.equals(i.secure().key()));
-            }
-
-            if (info.secure.name != null)
-            {
-                String16FW name = new String16FW(info.secure.name);
-                matchers.put(NAME.value(), i -> name.equals(i.secure().name()));
-            }
-
-            if (info.secure.signature != null)
-            {
-                String8FW signature = new String8FW(info.secure.signature);
-                matchers.put(SIGNATURE.value(), i -> signature.equals(i.secure().signature()));
-            }
-        }
-
-        MutableInteger matched = new MutableInteger();
-        Predicate<ProxyInfoFW> matchItem = i -> matchers.getOrDefault(matcherKey(i), x -> false).test(i);
-        return is ->
-        {
-            matched.value = 0;
-            is.forEach(i -> matched.value += matchItem.test(i) ? 1 : 0);
-            return matched.value == matchers.size();
-        };
-    }
-
-    private static int matcherKey(
-        ProxyInfoFW info)
-    {
-        ProxyInfoType kind = info.kind();
-        return kind == SECURE ? info.secure().kind().value() : kind.value();
-    }
-
-    private static InetAddress resolveHost(
-        String host)
-    {
-        InetAddress address = null;
-
-        try
-        {
-            address = InetAddress.getByName(host);
-        }
-        catch (UnknownHostException ex)
-        {
-            LangUtil.rethrowUnchecked(ex);
-        }
-
-        return address;
-    }
 }
@@ -15,11 +15,70 @@
  */
 package org.reaktivity.nukleus.proxy.internal.config;
 
+import static java.util.Collections.emptyMap;
+
+import java.util.Map;
+
 import org.reaktivity.reaktor.config.Options;
 
 public final class ProxyOptions extends Options
 {
+    public static final int VERSION_DEFAULT = 2;
+    // headerTimeout of zero inherits nukleus.proxy.header.timeout
+    public static final long HEADER_TIMEOUT_DEFAULT = 0L;
+    public static final String BALANCE_WEIGHTED = "weighted";
+    public static final String BALANCE_LEAST_CONNECTIONS = "least-connections";
+    public static final String BALANCE_SOURCE_HASH = "source-hash";
+    public static final String BALANCE_SOURCE_PORT_HASH = "source-port-hash";
+    public static final int WEIGHT_DEFAULT = 1;
+
+    public final int version;
+    public final long headerTimeout;
+    public final String balance;
+    public final Map<String, Integer> weights;
+    public final ProxyLocal local;
+    public final ProxyRateLimit rateLimit;
+
     public ProxyOptions()
     {
+        this(VERSION_DEFAULT);
+    }
+
+    public ProxyOptions(
+        int version)
+    {
+        this(version, HEADER_TIMEOUT_DEFAULT);
+    }
+
+    public ProxyOptions(
+        int version,
+        long headerTimeout)
+    {
+        this(version, headerTimeout, null, emptyMap());
+    }
+
+    public ProxyOptions(
+        int version,
+        long headerTimeout,
+        String balance,
+        Map<String, Integer> weights)
+    {
+        this(version, headerTimeout, balance, weights, null, null);
+    }
+
+    public ProxyOptions(
+        int version,
+        long headerTimeout,
+        String balance,
+        Map<String, Integer> weights,
+        ProxyLocal local,
+        ProxyRateLimit rateLimit)
+    {
+        this.version = version;
+        this.headerTimeout = headerTimeout;
+        this.balance = balance;
+        this.weights = weights;
+        this.local = local;
+        this.rateLimit = rateLimit;
     }
 }
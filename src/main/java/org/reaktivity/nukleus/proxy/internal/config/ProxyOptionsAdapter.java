@@ -15,6 +15,21 @@
  */
 package org.reaktivity.nukleus.proxy.internal.config;
 
+import static java.util.Arrays.asList;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.BALANCE_LEAST_CONNECTIONS;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.BALANCE_SOURCE_HASH;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.BALANCE_SOURCE_PORT_HASH;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.BALANCE_WEIGHTED;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.HEADER_TIMEOUT_DEFAULT;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.VERSION_DEFAULT;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyRateLimit.INET4_PREFIX_DEFAULT;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyRateLimit.INET6_PREFIX_DEFAULT;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 import javax.json.Json;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
@@ -26,6 +41,24 @@ import org.reaktivity.reaktor.config.OptionsAdapterSpi;
 
 public final class ProxyOptionsAdapter implements OptionsAdapterSpi, JsonbAdapter<Options, JsonObject>
 {
+    private static final String VERSION_NAME = "version";
+    private static final String HEADER_TIMEOUT_NAME = "headerTimeout";
+    private static final String BALANCE_NAME = "balance";
+    private static final String WEIGHTS_NAME = "weights";
+    private static final String LOCAL_NAME = "local";
+    private static final String LOCAL_PAYLOAD_NAME = "payload";
+    private static final String RATE_LIMIT_NAME = "rateLimit";
+    private static final String RATE_LIMIT_RATE_NAME = "rate";
+    private static final String RATE_LIMIT_BURST_NAME = "burst";
+    private static final String RATE_LIMIT_INET4_PREFIX_NAME = "inet4Prefix";
+    private static final String RATE_LIMIT_INET6_PREFIX_NAME = "inet6Prefix";
+
+    private static final Set<String> BALANCE_NAMES = new HashSet<>(asList(
+        BALANCE_WEIGHTED,
+        BALANCE_LEAST_CONNECTIONS,
+        BALANCE_SOURCE_HASH,
+        BALANCE_SOURCE_PORT_HASH));
+
     @Override
     public String type()
     {
@@ -36,8 +69,65 @@ public final class ProxyOptionsAdapter implements OptionsAdapterSpi, JsonbAdapte
     public JsonObject adaptToJson(
         Options options)
     {
+        ProxyOptions proxy = (ProxyOptions) options;
+
         JsonObjectBuilder object = Json.createObjectBuilder();
 
+        if (proxy.version != VERSION_DEFAULT)
+        {
+            object.add(VERSION_NAME, proxy.version);
+        }
+
+        if (proxy.headerTimeout != HEADER_TIMEOUT_DEFAULT)
+        {
+            object.add(HEADER_TIMEOUT_NAME, proxy.headerTimeout);
+        }
+
+        if (proxy.balance != null)
+        {
+            object.add(BALANCE_NAME, proxy.balance);
+        }
+
+        if (!proxy.weights.isEmpty())
+        {
+            JsonObjectBuilder weights = Json.createObjectBuilder();
+            proxy.weights.forEach(weights::add);
+            object.add(WEIGHTS_NAME, weights);
+        }
+
+        if (proxy.local != null)
+        {
+            JsonObjectBuilder local = Json.createObjectBuilder();
+            if (proxy.local.payload != null)
+            {
+                local.add(LOCAL_PAYLOAD_NAME, proxy.local.payload);
+            }
+            object.add(LOCAL_NAME, local);
+        }
+
+        if (proxy.rateLimit != null)
+        {
+            JsonObjectBuilder rateLimit = Json.createObjectBuilder();
+            rateLimit.add(RATE_LIMIT_RATE_NAME, proxy.rateLimit.rate);
+
+            if (proxy.rateLimit.burst != proxy.rateLimit.rate)
+            {
+                rateLimit.add(RATE_LIMIT_BURST_NAME, proxy.rateLimit.burst);
+            }
+
+            if (proxy.rateLimit.inet4Prefix != INET4_PREFIX_DEFAULT)
+            {
+                rateLimit.add(RATE_LIMIT_INET4_PREFIX_NAME, proxy.rateLimit.inet4Prefix);
+            }
+
+            if (proxy.rateLimit.inet6Prefix != INET6_PREFIX_DEFAULT)
+            {
+                rateLimit.add(RATE_LIMIT_INET6_PREFIX_NAME, proxy.rateLimit.inet6Prefix);
+            }
+
+            object.add(RATE_LIMIT_NAME, rateLimit);
+        }
+
         return object.build();
     }
 
@@ -45,6 +135,85 @@ public final class ProxyOptionsAdapter implements OptionsAdapterSpi, JsonbAdapte
     public Options adaptFromJson(
         JsonObject object)
     {
-        return new ProxyOptions();
+        int version = object.containsKey(VERSION_NAME) ? object.getInt(VERSION_NAME) : VERSION_DEFAULT;
+
+        if (version != 1 && version != 2)
+        {
+            throw new IllegalArgumentException("Unexpected version: " + version);
+        }
+
+        long headerTimeout = object.containsKey(HEADER_TIMEOUT_NAME)
+                ? object.getJsonNumber(HEADER_TIMEOUT_NAME).longValue()
+                : HEADER_TIMEOUT_DEFAULT;
+
+        if (headerTimeout < 0L)
+        {
+            throw new IllegalArgumentException("Unexpected headerTimeout: " + headerTimeout);
+        }
+
+        String balance = object.containsKey(BALANCE_NAME) ? object.getString(BALANCE_NAME) : null;
+
+        if (balance != null && !BALANCE_NAMES.contains(balance))
+        {
+            throw new IllegalArgumentException("Unexpected balance: " + balance);
+        }
+
+        Map<String, Integer> weights = new LinkedHashMap<>();
+
+        if (object.containsKey(WEIGHTS_NAME))
+        {
+            JsonObject weightsObject = object.getJsonObject(WEIGHTS_NAME);
+            for (String exit : weightsObject.keySet())
+            {
+                int weight = weightsObject.getInt(exit);
+
+                if (weight <= 0)
+                {
+                    throw new IllegalArgumentException("Unexpected weight: " + weight);
+                }
+
+                weights.put(exit, weight);
+            }
+        }
+
+        ProxyLocal local = null;
+
+        if (object.containsKey(LOCAL_NAME))
+        {
+            JsonObject localObject = object.getJsonObject(LOCAL_NAME);
+            String payload = localObject.containsKey(LOCAL_PAYLOAD_NAME) ? localObject.getString(LOCAL_PAYLOAD_NAME) : null;
+            local = new ProxyLocal(payload);
+        }
+
+        ProxyRateLimit rateLimit = null;
+
+        if (object.containsKey(RATE_LIMIT_NAME))
+        {
+            JsonObject rateLimitObject = object.getJsonObject(RATE_LIMIT_NAME);
+            int rate = rateLimitObject.getInt(RATE_LIMIT_RATE_NAME);
+            int burst = rateLimitObject.containsKey(RATE_LIMIT_BURST_NAME)
+                    ? rateLimitObject.getInt(RATE_LIMIT_BURST_NAME)
+                    : rate;
+            int inet4Prefix = rateLimitObject.containsKey(RATE_LIMIT_INET4_PREFIX_NAME)
+                    ? rateLimitObject.getInt(RATE_LIMIT_INET4_PREFIX_NAME)
+                    : INET4_PREFIX_DEFAULT;
+            int inet6Prefix = rateLimitObject.containsKey(RATE_LIMIT_INET6_PREFIX_NAME)
+                    ? rateLimitObject.getInt(RATE_LIMIT_INET6_PREFIX_NAME)
+                    : INET6_PREFIX_DEFAULT;
+
+            if (rate <= 0 || burst <= 0)
+            {
+                throw new IllegalArgumentException("Unexpected rateLimit: " + rate + "/" + burst);
+            }
+
+            if (inet4Prefix < 0 || inet4Prefix > 32 || inet6Prefix < 0 || inet6Prefix > 128)
+            {
+                throw new IllegalArgumentException("Unexpected rateLimit prefix: " + inet4Prefix + "/" + inet6Prefix);
+            }
+
+            rateLimit = new ProxyRateLimit(rate, burst, inet4Prefix, inet6Prefix);
+        }
+
+        return new ProxyOptions(version, headerTimeout, balance, weights, local, rateLimit);
     }
 }
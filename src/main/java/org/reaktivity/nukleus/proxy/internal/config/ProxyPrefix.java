@@ -0,0 +1,93 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.config;
+
+import static java.lang.Integer.parseInt;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.regex.Pattern;
+
+import org.agrona.DirectBuffer;
+import org.agrona.LangUtil;
+
+final class ProxyPrefix
+{
+    private static final Pattern INET_ADDRESS_PATTERN =
+            Pattern.compile("([0-9]{1,3}(\\.[0-9]{1,3}){3}|[0-9a-fA-F:.]*:[0-9a-fA-F:.]*)(/[0-9]{1,3})?");
+
+    final byte[] address;
+    final int length;
+
+    ProxyPrefix(
+        byte[] address,
+        int length)
+    {
+        this.address = address;
+        this.length = length;
+    }
+
+    boolean matches(
+        DirectBuffer buffer,
+        int offset)
+    {
+        boolean match = true;
+
+        for (int i = 0, remaining = length; match && remaining > 0; i++, remaining -= Byte.SIZE)
+        {
+            byte addressByte = buffer.getByte(offset + i);
+            byte prefixByte = address[i];
+            int compareBits = Math.min(remaining, Byte.SIZE);
+            int compareMask = ((1 << compareBits) - 1) << (Byte.SIZE - compareBits);
+
+            match = (addressByte & compareMask) == (prefixByte & compareMask);
+        }
+
+        return match;
+    }
+
+    static boolean isAddress(
+        String host)
+    {
+        return INET_ADDRESS_PATTERN.matcher(host).matches();
+    }
+
+    static ProxyPrefix of(
+        String host)
+    {
+        final String[] cidr = host.split("/");
+        final byte[] address = resolveHost(cidr[0]).getAddress();
+        final int length = cidr.length == 2 ? parseInt(cidr[1]) : address.length * Byte.SIZE;
+        return new ProxyPrefix(address, length);
+    }
+
+    private static InetAddress resolveHost(
+        String host)
+    {
+        InetAddress address = null;
+
+        try
+        {
+            address = InetAddress.getByName(host);
+        }
+        catch (UnknownHostException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        return address;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.config;
+
+import java.util.Arrays;
+
+import org.agrona.DirectBuffer;
+import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
+
+final class ProxyPrefixTrie
+{
+    private static final int NO_NODE = 0;
+    private static final int[] NO_ROUTES = new int[0];
+
+    private final int bits;
+
+    private int[] zeros;
+    private int[] ones;
+    private int[][] routes;
+    private int nodes;
+
+    ProxyPrefixTrie(
+        int bits)
+    {
+        this.bits = bits;
+        this.zeros = new int[16];
+        this.ones = new int[16];
+        this.routes = new int[16][];
+        this.routes[0] = NO_ROUTES;
+        this.nodes = 1;
+    }
+
+    void insert(
+        ProxyPrefix prefix,
+        int index)
+    {
+        final int length = Math.min(prefix.length, bits);
+
+        int node = 0;
+        for (int bit = 0; bit < length; bit++)
+        {
+            final boolean one = (prefix.address[bit >> 3] & (0x80 >> (bit & 0x07))) != 0;
+            int child = one ? ones[node] : zeros[node];
+
+            if (child == NO_NODE)
+            {
+                child = newNode();
+
+                if (one)
+                {
+                    ones[node] = child;
+                }
+                else
+                {
+                    zeros[node] = child;
+                }
+            }
+
+            node = child;
+        }
+
+        final int[] indices = routes[node];
+        final int[] newIndices = Arrays.copyOf(indices, indices.length + 1);
+        newIndices[indices.length] = index;
+        routes[node] = newIndices;
+    }
+
+    int resolve(
+        DirectBuffer buffer,
+        int offset,
+        ProxyRoute[] candidates,
+        ProxyBeginExFW beginEx,
+        int limit)
+    {
+        int resolved = limit;
+
+        int node = 0;
+        for (int bit = 0; bit <= bits; bit++)
+        {
+            final int[] indices = routes[node];
+            for (int i = 0; i < indices.length && indices[i] < resolved; i++)
+            {
+                final int index = indices[i];
+                if (candidates[index].matches(beginEx))
+                {
+                    resolved = index;
+                    break;
+                }
+            }
+
+            if (bit == bits)
+            {
+                break;
+            }
+
+            final boolean one = (buffer.getByte(offset + (bit >> 3)) & (0x80 >> (bit & 0x07))) != 0;
+            node = one ? ones[node] : zeros[node];
+
+            if (node == NO_NODE)
+            {
+                break;
+            }
+        }
+
+        return resolved;
+    }
+
+    private int newNode()
+    {
+        if (nodes == zeros.length)
+        {
+            final int capacity = nodes << 1;
+            zeros = Arrays.copyOf(zeros, capacity);
+            ones = Arrays.copyOf(ones, capacity);
+            routes = Arrays.copyOf(routes, capacity);
+        }
+
+        routes[nodes] = NO_ROUTES;
+        return nodes++;
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.config;
+
+public class ProxyRateLimit
+{
+    public static final int INET4_PREFIX_DEFAULT = 32;
+    public static final int INET6_PREFIX_DEFAULT = 64;
+
+    public final int rate;
+    public final int burst;
+    public final int inet4Prefix;
+    public final int inet6Prefix;
+
+    public ProxyRateLimit(
+        int rate,
+        int burst,
+        int inet4Prefix,
+        int inet6Prefix)
+    {
+        this.rate = rate;
+        this.burst = burst;
+        this.inet4Prefix = inet4Prefix;
+        this.inet6Prefix = inet6Prefix;
+    }
+}
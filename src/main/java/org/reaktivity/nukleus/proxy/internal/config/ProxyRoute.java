@@ -19,20 +19,130 @@ import static java.util.stream.Collectors.toList;
 
 import java.util.List;
 
+import org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily;
+import org.reaktivity.nukleus.proxy.internal.types.ProxyAddressProtocol;
+import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
 import org.reaktivity.reaktor.config.Route;
 
 public final class ProxyRoute
 {
     public final long id;
+    public final int index;
     public final List<ProxyMatcher> when;
 
     public ProxyRoute(
-        Route route)
+        Route route,
+        int index)
     {
-        this.id = route.id;
-        this.when = route.when.stream()
+        this(route.id, index, route.when.stream()
             .map(ProxyCondition.class::cast)
             .map(ProxyMatcher::new)
-            .collect(toList());
+            .collect(toList()));
+    }
+
+    ProxyRoute(
+        long id,
+        int index,
+        List<ProxyMatcher> when)
+    {
+        this.id = id;
+        this.index = index;
+        this.when = when;
+    }
+
+    public boolean matches(
+        ProxyBeginExFW beginEx)
+    {
+        boolean matches = true;
+
+        for (int i = 0; matches && i < when.size(); i++)
+        {
+            matches = when.get(i).matches(beginEx);
+        }
+
+        return matches;
+    }
+
+    boolean admits(
+        ProxyAddressFamily family,
+        ProxyAddressProtocol transport)
+    {
+        boolean admits = true;
+
+        for (int i = 0; admits && i < when.size(); i++)
+        {
+            admits = when.get(i).admits(family, transport);
+        }
+
+        return admits;
+    }
+
+    int destinationPort()
+    {
+        int port = ProxyMatcher.NO_PORT;
+
+        for (int i = 0; port == ProxyMatcher.NO_PORT && i < when.size(); i++)
+        {
+            port = when.get(i).destinationPort;
+        }
+
+        return port;
+    }
+
+    ProxyPrefix sourcePrefix(
+        int bits)
+    {
+        ProxyPrefix prefix = null;
+
+        for (int i = 0; prefix == null && i < when.size(); i++)
+        {
+            prefix = inetPrefix(when.get(i).sourcePrefix, bits);
+        }
+
+        return prefix;
+    }
+
+    ProxyPrefix destinationPrefix(
+        int bits)
+    {
+        ProxyPrefix prefix = null;
+
+        for (int i = 0; prefix == null && i < when.size(); i++)
+        {
+            prefix = inetPrefix(when.get(i).destinationPrefix, bits);
+        }
+
+        return prefix;
+    }
+
+    String sourceHost()
+    {
+        String host = null;
+
+        for (int i = 0; host == null && i < when.size(); i++)
+        {
+            host = when.get(i).sourceHost;
+        }
+
+        return host;
+    }
+
+    String destinationHost()
+    {
+        String host = null;
+
+        for (int i = 0; host == null && i < when.size(); i++)
+        {
+            host = when.get(i).destinationHost;
+        }
+
+        return host;
+    }
+
+    private static ProxyPrefix inetPrefix(
+        ProxyPrefix prefix,
+        int bits)
+    {
+        return prefix != null && prefix.address.length * Byte.SIZE == bits ? prefix : null;
     }
 }
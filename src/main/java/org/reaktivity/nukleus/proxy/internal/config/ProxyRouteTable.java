@@ -0,0 +1,369 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.config;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyMatcher.NO_PORT;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.INET;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.INET4;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.NONE;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.UNIX;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.reaktivity.nukleus.proxy.internal.types.OctetsFW;
+import org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFW;
+import org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily;
+import org.reaktivity.nukleus.proxy.internal.types.ProxyAddressProtocol;
+import org.reaktivity.nukleus.proxy.internal.types.String16FW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
+
+public final class ProxyRouteTable
+{
+    private static final ProxyAddressFamily[] FAMILIES = ProxyAddressFamily.values();
+    private static final ProxyAddressProtocol[] TRANSPORTS = ProxyAddressProtocol.values();
+    private static final int PROXY_ADDRESS_BITS_INET4 = 32;
+    private static final int PROXY_ADDRESS_BITS_INET6 = 128;
+    private static final int[] NO_ROUTES = new int[0];
+
+    private final ProxyRoute[] routes;
+    private final ProxyRoute exit;
+    private final ProxyRoute unaddressed;
+    private final Candidates[] candidates;
+
+    public ProxyRouteTable(
+        List<ProxyRoute> routes,
+        ProxyRoute exit)
+    {
+        this.routes = routes.toArray(ProxyRoute[]::new);
+        this.exit = exit;
+        this.unaddressed = routes.stream().filter(r -> r.when.isEmpty()).findFirst().orElse(exit);
+        this.candidates = new Candidates[FAMILIES.length * TRANSPORTS.length];
+
+        for (ProxyAddressFamily family : FAMILIES)
+        {
+            for (ProxyAddressProtocol transport : TRANSPORTS)
+            {
+                candidates[index(family, transport)] = new Candidates(this.routes, family, transport);
+            }
+        }
+    }
+
+    public ProxyRoute resolve(
+        ProxyBeginExFW beginEx)
+    {
+        ProxyRoute resolved = unaddressed;
+
+        if (beginEx != null)
+        {
+            final ProxyAddressFW address = beginEx.address();
+            final Candidates candidate = candidates[index(address.kind(), transport(address))];
+            final int index = candidate.resolve(routes, beginEx);
+
+            resolved = index < routes.length ? routes[index] : exit;
+        }
+
+        return resolved;
+    }
+
+    private static int index(
+        ProxyAddressFamily family,
+        ProxyAddressProtocol transport)
+    {
+        return family.ordinal() * TRANSPORTS.length + transport.ordinal();
+    }
+
+    private static ProxyAddressProtocol transport(
+        ProxyAddressFW address)
+    {
+        ProxyAddressProtocol transport = TRANSPORTS[0];
+
+        switch (address.kind())
+        {
+        case INET:
+            transport = address.inet().protocol().get();
+            break;
+        case INET4:
+            transport = address.inet4().protocol().get();
+            break;
+        case INET6:
+            transport = address.inet6().protocol().get();
+            break;
+        case UNIX:
+            transport = address.unix().protocol().get();
+            break;
+        default:
+            break;
+        }
+
+        return transport;
+    }
+
+    private static int destinationPort(
+        ProxyAddressFW address)
+    {
+        int port = NO_PORT;
+
+        switch (address.kind())
+        {
+        case INET:
+            port = address.inet().destinationPort();
+            break;
+        case INET4:
+            port = address.inet4().destinationPort();
+            break;
+        case INET6:
+            port = address.inet6().destinationPort();
+            break;
+        default:
+            break;
+        }
+
+        return port;
+    }
+
+    private static int addressBits(
+        ProxyAddressFamily family)
+    {
+        int bits = 0;
+
+        switch (family)
+        {
+        case INET4:
+            bits = PROXY_ADDRESS_BITS_INET4;
+            break;
+        case INET6:
+            bits = PROXY_ADDRESS_BITS_INET6;
+            break;
+        default:
+            break;
+        }
+
+        return bits;
+    }
+
+    private static final class Candidates
+    {
+        private final ProxyAddressFamily family;
+        private final ProxyPrefixTrie sources;
+        private final ProxyPrefixTrie destinations;
+        private final Int2ObjectHashMap<int[]> sourceHosts;
+        private final Int2ObjectHashMap<int[]> destinationHosts;
+        private final int[] anyPort;
+        private final Int2ObjectHashMap<int[]> byPort;
+
+        private Candidates(
+            ProxyRoute[] routes,
+            ProxyAddressFamily family,
+            ProxyAddressProtocol transport)
+        {
+            final int bits = addressBits(family);
+            final int[] admitted = IntStream.range(0, routes.length)
+                .filter(i -> routes[i].admits(family, transport))
+                .toArray();
+            final boolean[] indexed = new boolean[routes.length];
+            final int[] ports = new int[routes.length];
+
+            ProxyPrefixTrie sources = null;
+            ProxyPrefixTrie destinations = null;
+
+            for (int i = 0; bits != 0 && i < admitted.length; i++)
+            {
+                final int index = admitted[i];
+                final ProxyPrefix source = routes[index].sourcePrefix(bits);
+                final ProxyPrefix destination = routes[index].destinationPrefix(bits);
+
+                if (source != null)
+                {
+                    sources = sources != null ? sources : new ProxyPrefixTrie(bits);
+                    sources.insert(source, index);
+                    indexed[index] = true;
+                }
+                else if (destination != null)
+                {
+                    destinations = destinations != null ? destinations : new ProxyPrefixTrie(bits);
+                    destinations.insert(destination, index);
+                    indexed[index] = true;
+                }
+            }
+
+            Int2ObjectHashMap<int[]> sourceHosts = null;
+            Int2ObjectHashMap<int[]> destinationHosts = null;
+
+            for (int i = 0; family == INET && i < admitted.length; i++)
+            {
+                final int index = admitted[i];
+                final String source = routes[index].sourceHost();
+                final String destination = routes[index].destinationHost();
+
+                if (source != null)
+                {
+                    sourceHosts = sourceHosts != null ? sourceHosts : new Int2ObjectHashMap<>();
+                    insertHost(sourceHosts, source, index);
+                    indexed[index] = true;
+                }
+                else if (destination != null)
+                {
+                    destinationHosts = destinationHosts != null ? destinationHosts : new Int2ObjectHashMap<>();
+                    insertHost(destinationHosts, destination, index);
+                    indexed[index] = true;
+                }
+            }
+
+            for (int i = 0; i < routes.length; i++)
+            {
+                ports[i] = hasPorts(family) ? routes[i].destinationPort() : NO_PORT;
+            }
+
+            final int[] linear = IntStream.of(admitted)
+                .filter(i -> !indexed[i])
+                .toArray();
+
+            this.family = family;
+            this.sources = sources;
+            this.destinations = destinations;
+            this.sourceHosts = sourceHosts;
+            this.destinationHosts = destinationHosts;
+            this.anyPort = IntStream.of(linear)
+                .filter(i -> ports[i] == NO_PORT)
+                .toArray();
+            this.byPort = new Int2ObjectHashMap<>();
+
+            IntStream.of(linear)
+                .map(i -> ports[i])
+                .filter(p -> p != NO_PORT)
+                .distinct()
+                .forEach(p -> byPort.put(p, IntStream.of(linear)
+                    .filter(i -> ports[i] == NO_PORT || ports[i] == p)
+                    .toArray()));
+        }
+
+        private int resolve(
+            ProxyRoute[] routes,
+            ProxyBeginExFW beginEx)
+        {
+            final ProxyAddressFW address = beginEx.address();
+
+            int resolved = routes.length;
+
+            if (sources != null)
+            {
+                final OctetsFW source = family == INET4 ? address.inet4().source() : address.inet6().source();
+                resolved = sources.resolve(source.buffer(), source.offset(), routes, beginEx, resolved);
+            }
+
+            if (destinations != null)
+            {
+                final OctetsFW destination = family == INET4 ? address.inet4().destination() : address.inet6().destination();
+                resolved = destinations.resolve(destination.buffer(), destination.offset(), routes, beginEx, resolved);
+            }
+
+            if (sourceHosts != null)
+            {
+                final int[] indices = lookupHost(sourceHosts, address.inet().source());
+                resolved = resolve(indices, routes, beginEx, resolved);
+            }
+
+            if (destinationHosts != null)
+            {
+                final int[] indices = lookupHost(destinationHosts, address.inet().destination());
+                resolved = resolve(indices, routes, beginEx, resolved);
+            }
+
+            final int[] indices = lookup(destinationPort(address));
+            return resolve(indices, routes, beginEx, resolved);
+        }
+
+        private int[] lookup(
+            int port)
+        {
+            final int[] indices = byPort.get(port);
+            return indices != null ? indices : anyPort;
+        }
+
+        private static int resolve(
+            int[] indices,
+            ProxyRoute[] routes,
+            ProxyBeginExFW beginEx,
+            int limit)
+        {
+            int resolved = limit;
+
+            for (int i = 0; i < indices.length && indices[i] < resolved; i++)
+            {
+                final int index = indices[i];
+                if (routes[index].matches(beginEx))
+                {
+                    resolved = index;
+                    break;
+                }
+            }
+
+            return resolved;
+        }
+
+        private static int[] lookupHost(
+            Int2ObjectHashMap<int[]> hosts,
+            String16FW host)
+        {
+            final DirectBuffer value = host.value();
+
+            int[] indices = NO_ROUTES;
+
+            if (value != null)
+            {
+                int hash = 0;
+                for (int i = 0; i < host.length(); i++)
+                {
+                    hash = 31 * hash + value.getByte(i);
+                }
+
+                indices = hosts.getOrDefault(hash, NO_ROUTES);
+            }
+
+            return indices;
+        }
+
+        private static void insertHost(
+            Int2ObjectHashMap<int[]> hosts,
+            String host,
+            int index)
+        {
+            final byte[] bytes = host.getBytes(UTF_8);
+
+            int hash = 0;
+            for (int i = 0; i < bytes.length; i++)
+            {
+                hash = 31 * hash + bytes[i];
+            }
+
+            final int[] indices = hosts.getOrDefault(hash, NO_ROUTES);
+            final int[] newIndices = Arrays.copyOf(indices, indices.length + 1);
+            newIndices[indices.length] = index;
+            hosts.put(hash, newIndices);
+        }
+
+        private static boolean hasPorts(
+            ProxyAddressFamily family)
+        {
+            return family != UNIX && family != NONE;
+        }
+    }
+}
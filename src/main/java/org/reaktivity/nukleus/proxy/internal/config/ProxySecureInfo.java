@@ -15,6 +15,8 @@
  */
 package org.reaktivity.nukleus.proxy.internal.config;
 
+import java.util.Objects;
+
 public class ProxySecureInfo
 {
     public final String version;
@@ -40,4 +42,29 @@ public class ProxySecureInfo
         this.name = name;
         this.signature = signature;
     }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        boolean equals = this == obj;
+
+        if (!equals && obj instanceof ProxySecureInfo)
+        {
+            ProxySecureInfo that = (ProxySecureInfo) obj;
+            equals = Objects.equals(version, that.version) &&
+                    Objects.equals(cipher, that.cipher) &&
+                    Objects.equals(key, that.key) &&
+                    Objects.equals(name, that.name) &&
+                    Objects.equals(signature, that.signature);
+        }
+
+        return equals;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(version, cipher, key, name, signature);
+    }
 }
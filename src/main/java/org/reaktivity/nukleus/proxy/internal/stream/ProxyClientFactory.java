@@ -17,9 +17,11 @@ package org.reaktivity.nukleus.proxy.internal.stream;
 
 import static java.nio.ByteOrder.BIG_ENDIAN;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.VERSION_DEFAULT;
 import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.INET;
 import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.INET4;
 import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFamily.INET6;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressProtocol.STREAM;
 import static org.reaktivity.nukleus.proxy.internal.types.ProxyInfoType.SECURE;
 import static org.reaktivity.reaktor.nukleus.buffer.BufferPool.NO_SLOT;
 
@@ -33,9 +35,11 @@ import java.util.function.LongUnaryOperator;
 import org.agrona.DirectBuffer;
 import org.agrona.LangUtil;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.reaktivity.nukleus.proxy.internal.ProxyConfiguration;
 import org.reaktivity.nukleus.proxy.internal.ProxyNukleus;
+import org.reaktivity.nukleus.proxy.internal.config.ProxyBalancer;
 import org.reaktivity.nukleus.proxy.internal.config.ProxyBinding;
 import org.reaktivity.nukleus.proxy.internal.config.ProxyRoute;
 import org.reaktivity.nukleus.proxy.internal.types.Array32FW;
@@ -57,10 +61,12 @@ import org.reaktivity.nukleus.proxy.internal.types.stream.EndFW;
 import org.reaktivity.nukleus.proxy.internal.types.stream.FlushFW;
 import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
 import org.reaktivity.nukleus.proxy.internal.types.stream.ResetFW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.SignalFW;
 import org.reaktivity.nukleus.proxy.internal.types.stream.WindowFW;
 import org.reaktivity.reaktor.config.Binding;
 import org.reaktivity.reaktor.nukleus.ElektronContext;
 import org.reaktivity.reaktor.nukleus.buffer.BufferPool;
+import org.reaktivity.reaktor.nukleus.concurrent.Signaler;
 import org.reaktivity.reaktor.nukleus.function.MessageConsumer;
 import org.reaktivity.reaktor.nukleus.stream.StreamFactory;
 
@@ -70,6 +76,14 @@ public final class ProxyClientFactory implements ProxyStreamFactory
     private static final InetAddress INET6_ANY_LOCAL_ADDRESS = getInetAddressByAddress(new byte[16]);
 
     private static final DirectBuffer HEADER_V2 = new UnsafeBuffer("\r\n\r\n\0\r\nQUIT\n".getBytes(US_ASCII));
+    private static final DirectBuffer HEADER_V1 = new UnsafeBuffer("PROXY ".getBytes(US_ASCII));
+    private static final DirectBuffer HEADER_V1_TCP4 = new UnsafeBuffer("TCP4 ".getBytes(US_ASCII));
+    private static final DirectBuffer HEADER_V1_TCP6 = new UnsafeBuffer("TCP6 ".getBytes(US_ASCII));
+    private static final DirectBuffer HEADER_V1_UNKNOWN = new UnsafeBuffer("UNKNOWN".getBytes(US_ASCII));
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(US_ASCII);
+
+    private static final int FLUSH_HEADER_SIGNAL = 1;
+    private static final int RESOLVE_HOST_SIGNAL = 2;
 
     private final BeginFW beginRO = new BeginFW();
     private final DataFW dataRO = new DataFW();
@@ -87,6 +101,7 @@ public final class ProxyClientFactory implements ProxyStreamFactory
 
     private final WindowFW windowRO = new WindowFW();
     private final ResetFW resetRO = new ResetFW();
+    private final SignalFW signalRO = new SignalFW();
 
     private final ProxyBeginExFW beginExRO = new ProxyBeginExFW();
 
@@ -96,15 +111,23 @@ public final class ProxyClientFactory implements ProxyStreamFactory
     private final OctetsFW payloadRO = new OctetsFW();
 
     private final ProxyInfoFW infoRO = new ProxyInfoFW();
+    private final UnsafeBuffer inetAddressRO = new UnsafeBuffer(0, 0);
     private final ProxyTlvFW.Builder tlvRW = new ProxyTlvFW.Builder();
 
     private final ProxyRouter router;
     private final MutableDirectBuffer writeBuffer;
-    private final BufferPool encodePool;
+    private final ProxyHeaderArena encodeArena;
+    private final MutableDirectBuffer encodeBuffer;
+    private final Signaler signaler;
+    private final long headerFlushDelay;
     private final StreamFactory streamFactory;
     private final LongUnaryOperator supplyInitialId;
     private final LongUnaryOperator supplyReplyId;
     private final Function<String, InetAddress[]> resolveHost;
+    private final ProxyHostCache hostCache;
+    private final boolean relayInPlace;
+    private final ElektronContext context;
+    private final Long2ObjectHashMap<ProxyRouteCounters> routeCounters;
 
     public ProxyClientFactory(
         ProxyConfiguration config,
@@ -112,11 +135,20 @@ public final class ProxyClientFactory implements ProxyStreamFactory
     {
         this.router = new ProxyRouter(context.supplyTypeId(ProxyNukleus.NAME));
         this.writeBuffer = context.writeBuffer();
-        this.encodePool = context.bufferPool();
+        final BufferPool bufferPool = context.bufferPool();
+        this.encodeArena = new ProxyHeaderArena(config.headerArenaCellCapacity(), config.headerArenaCells(), bufferPool);
+        this.encodeBuffer = new UnsafeBuffer(new byte[bufferPool.slotCapacity()]);
+        this.signaler = context.signaler();
+        this.headerFlushDelay = config.headerFlushDelay();
         this.streamFactory = context.streamFactory();
         this.supplyInitialId = context::supplyInitialId;
         this.supplyReplyId = context::supplyReplyId;
         this.resolveHost = context::resolveHost;
+        this.hostCache = new ProxyHostCache(config.hostCacheCapacity(), config.hostCacheTtl(),
+                config.hostCacheNegativeTtl(), System::currentTimeMillis);
+        this.relayInPlace = config.relayInPlace();
+        this.context = context;
+        this.routeCounters = new Long2ObjectHashMap<>();
     }
 
     @Override
@@ -125,6 +157,9 @@ public final class ProxyClientFactory implements ProxyStreamFactory
     {
         ProxyBinding proxyBinding = new ProxyBinding(binding);
         router.attach(proxyBinding);
+        routeCounters.put(binding.id, new ProxyRouteCounters(proxyBinding.routes.size() + 1,
+            name -> context.supplyCounter(binding.id, name),
+            name -> context.supplyAccumulator(binding.id, name)));
     }
 
     @Override
@@ -132,6 +167,7 @@ public final class ProxyClientFactory implements ProxyStreamFactory
         long bindingId)
     {
         router.detach(bindingId);
+        routeCounters.remove(bindingId);
     }
 
     @Override
@@ -154,7 +190,10 @@ public final class ProxyClientFactory implements ProxyStreamFactory
         final ProxyRoute resolved = binding != null ? binding.resolve(authorization, beginEx) : null;
         if (resolved != null)
         {
-            newStream = new ProxyAppClient(routeId, initialId, sender, resolved.id)::onAppMessage;
+            final int version = binding.options != null ? binding.options.version : VERSION_DEFAULT;
+            final ProxyRouteCounters counters = routeCounters.get(routeId);
+            newStream = new ProxyAppClient(routeId, initialId, sender, resolved.id, resolved.index,
+                    counters, binding.balancer, version)::onAppMessage;
         }
 
         return newStream;
@@ -166,9 +205,15 @@ public final class ProxyClientFactory implements ProxyStreamFactory
         private final long routeId;
         private final long initialId;
         private final long replyId;
+        private final int route;
+        private final ProxyRouteCounters counters;
+        private final ProxyBalancer balancer;
 
         private final ProxyNetClient net;
 
+        private int state;
+        private boolean routed;
+
         private long initialSeq;
         private long initialAck;
         private int initialMax;
@@ -182,13 +227,20 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             long routeId,
             long initialId,
             MessageConsumer receiver,
-            long resolvedId)
+            long resolvedId,
+            int route,
+            ProxyRouteCounters counters,
+            ProxyBalancer balancer,
+            int version)
         {
             this.routeId = routeId;
             this.initialId = initialId;
             this.receiver = receiver;
             this.replyId = supplyReplyId.applyAsLong(initialId);
-            this.net = new ProxyNetClient(this, resolvedId);
+            this.route = route;
+            this.counters = counters;
+            this.balancer = balancer;
+            this.net = new ProxyNetClient(this, resolvedId, version);
         }
 
         private void onAppMessage(
@@ -231,6 +283,10 @@ public final class ProxyClientFactory implements ProxyStreamFactory
                 final ChallengeFW challenge = challengeRO.wrap(buffer, index, index + length);
                 onAppChallenge(challenge);
                 break;
+            case SignalFW.TYPE_ID:
+                final SignalFW signal = signalRO.wrap(buffer, index, index + length);
+                onAppSignal(signal);
+                break;
             default:
                 break;
             }
@@ -246,6 +302,11 @@ public final class ProxyClientFactory implements ProxyStreamFactory
 
             final ProxyBeginExFW beginEx = extension.get(beginExRO::tryWrap);
 
+            state = ProxyState.openedInitial(state);
+            counters.onOpened(route);
+            balancer.onOpened(route);
+            routed = true;
+
             net.doNetBegin(traceId, authorization, affinity, beginEx);
         }
 
@@ -275,7 +336,16 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             }
             else
             {
-                net.doNetData(traceId, authorization, budgetId, flags, reserved, payload);
+                counters.onInitialData(route, Math.max(data.length(), 0));
+
+                if (relayInPlace && net.encodeSlot == NO_SLOT && data.extension().sizeof() == 0)
+                {
+                    net.doNetRelay(data);
+                }
+                else
+                {
+                    net.doNetData(traceId, authorization, budgetId, flags, reserved, payload);
+                }
             }
         }
 
@@ -285,6 +355,9 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             final long traceId = end.traceId();
             final long authorization = end.authorization();
 
+            state = ProxyState.closedInitial(state);
+            cleanupRoute(false);
+
             net.doNetEnd(traceId, authorization);
         }
 
@@ -294,6 +367,9 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             final long traceId = abort.traceId();
             final long authorization = abort.authorization();
 
+            state = ProxyState.closedInitial(state);
+            cleanupRoute(true);
+
             net.doNetAbort(traceId, authorization);
         }
 
@@ -345,6 +421,9 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             final long traceId = reset.traceId();
             final long authorization = reset.authorization();
 
+            state = ProxyState.closedReply(state);
+            cleanupRoute(false);
+
             net.doNetReset(traceId, authorization);
         }
 
@@ -358,6 +437,22 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             net.doNetChallenge(traceId, authorization, extension);
         }
 
+        private void onAppSignal(
+            SignalFW signal)
+        {
+            final long traceId = signal.traceId();
+            final long authorization = signal.authorization();
+
+            switch (signal.signalId())
+            {
+            case RESOLVE_HOST_SIGNAL:
+                net.onNetResolved(traceId, authorization);
+                break;
+            default:
+                break;
+            }
+        }
+
         private void doAppBegin(
             long traceId,
             long authorization,
@@ -365,6 +460,7 @@ public final class ProxyClientFactory implements ProxyStreamFactory
         {
             doBegin(receiver, routeId, replyId, replySeq, replyAck, replyMax,
                     traceId, authorization, affinity);
+            state = ProxyState.openingReply(state);
         }
 
         private void doAppData(
@@ -381,6 +477,22 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             replySeq += reserved;
 
             assert replyAck <= replySeq;
+
+            counters.onReplyData(route, payload != null ? payload.sizeof() : 0);
+        }
+
+        private void doAppRelay(
+            DataFW data)
+        {
+            final int reserved = data.reserved();
+
+            doRelay(receiver, routeId, replyId, replySeq, replyAck, replyMax, data);
+
+            replySeq += reserved;
+
+            assert replyAck <= replySeq;
+
+            counters.onReplyData(route, Math.max(data.length(), 0));
         }
 
         private void doAppEnd(
@@ -389,6 +501,8 @@ public final class ProxyClientFactory implements ProxyStreamFactory
         {
             doEnd(receiver, routeId, replyId, replySeq, replyAck, replyMax,
                     traceId, authorization);
+            state = ProxyState.closedReply(state);
+            cleanupRoute(false);
         }
 
         private void doAppAbort(
@@ -397,6 +511,8 @@ public final class ProxyClientFactory implements ProxyStreamFactory
         {
             doAbort(receiver, routeId, replyId, replySeq, replyAck, replyMax,
                     traceId, authorization);
+            state = ProxyState.closedReply(state);
+            cleanupRoute(false);
         }
 
         private void doAppFlush(
@@ -415,6 +531,8 @@ public final class ProxyClientFactory implements ProxyStreamFactory
         {
             doReset(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
                     traceId, authorization);
+            state = ProxyState.closedInitial(state);
+            cleanupRoute(true);
         }
 
         private void doAppWindow(
@@ -449,6 +567,17 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             doChallenge(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
                     traceId, authorization, extension);
         }
+
+        private void cleanupRoute(
+            boolean abortive)
+        {
+            if (routed && (ProxyState.closed(state) || abortive && !ProxyState.replyOpening(state)))
+            {
+                counters.onClosed(route);
+                balancer.onClosed(route);
+                routed = false;
+            }
+        }
     }
 
     private final class ProxyNetClient
@@ -457,15 +586,28 @@ public final class ProxyClientFactory implements ProxyStreamFactory
         private final long routeId;
         private final long initialId;
         private final long replyId;
+        private final int version;
         private MessageConsumer receiver;
 
         private int encodeSlot = NO_SLOT;
         private int encodeSlotOffset;
+        private int resolveSlot = NO_SLOT;
+        private long headerFlushId = Signaler.NO_CANCEL_ID;
+        private boolean headerEndPending;
+        private boolean headerFlushPending;
+        private int headerFlushReserved;
+
+        private long affinity;
+        private InetAddress[] sourceAddresses;
+        private InetAddress[] destinationAddresses;
+        private String resolvingHost;
+        private volatile InetAddress[] resolvedAddresses;
 
         private long initialSeq;
         private long initialAck;
         private int initialMax;
         private int initialPad;
+        private long initialBud;
 
         private long replySeq;
         private long replyAck;
@@ -473,12 +615,14 @@ public final class ProxyClientFactory implements ProxyStreamFactory
 
         private ProxyNetClient(
             ProxyAppClient application,
-            long routeId)
+            long routeId,
+            int version)
         {
             this.app = application;
             this.routeId = routeId;
             this.initialId = supplyInitialId.applyAsLong(routeId);
             this.replyId =  supplyReplyId.applyAsLong(initialId);
+            this.version = version;
         }
 
         private void onNetMessage(
@@ -521,6 +665,10 @@ public final class ProxyClientFactory implements ProxyStreamFactory
                 final ChallengeFW challenge = challengeRO.wrap(buffer, index, index + length);
                 onNetChallenge(challenge);
                 break;
+            case SignalFW.TYPE_ID:
+                final SignalFW signal = signalRO.wrap(buffer, index, index + length);
+                onNetSignal(signal);
+                break;
             default:
                 break;
             }
@@ -560,6 +708,10 @@ public final class ProxyClientFactory implements ProxyStreamFactory
                 doNetReset(traceId, authorization);
                 app.doAppAbort(traceId, authorization);
             }
+            else if (relayInPlace && data.extension().sizeof() == 0)
+            {
+                app.doAppRelay(data);
+            }
             else
             {
                 app.doAppData(traceId, authorization, flags, budgetId, reserved, payload);
@@ -616,21 +768,25 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             this.initialAck = acknowledge;
             this.initialMax = maximum;
             this.initialPad = padding;
+            this.initialBud = budgetId;
 
             assert initialAck <= initialSeq;
 
-            if (encodeSlot != NO_SLOT)
+            if (encodeSlot != NO_SLOT && initialMax - (int)(initialSeq - initialAck) >= encodeSlotOffset + padding)
             {
-                DirectBuffer encodeBuffer = encodePool.buffer(encodeSlot);
-                OctetsFW payload = payloadRO.wrap(encodeBuffer, 0, encodeSlotOffset);
-
-                doNetData(traceId, authorization, budgetId, 0x03, payload.sizeof() + padding, payload);
-
-                encodePool.release(encodeSlot);
-                encodeSlot = NO_SLOT;
+                if (headerFlushDelay == 0L || headerEndPending || headerFlushPending)
+                {
+                    doNetHeaderPending(traceId, authorization, budgetId);
+                }
+                else if (headerFlushId == Signaler.NO_CANCEL_ID)
+                {
+                    headerFlushId = signaler.signalAt(System.currentTimeMillis() + headerFlushDelay,
+                            routeId, initialId, FLUSH_HEADER_SIGNAL);
+                }
             }
 
-            final int initialWin = initialMax - (int)(initialSeq - initialAck);
+            final int encodeReserved = encodeSlot != NO_SLOT ? encodeSlotOffset + padding : 0;
+            final int initialWin = initialMax - (int)(initialSeq - initialAck) - encodeReserved;
             if (initialWin > 0)
             {
                 app.doAppWindow(traceId, authorization, budgetId, minimum, capabilities, initialWin, initialPad, initialMax);
@@ -656,28 +812,163 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             app.doAppChallenge(traceId, authorization, extension);
         }
 
+        private void onNetSignal(
+            SignalFW signal)
+        {
+            final long traceId = signal.traceId();
+            final long authorization = signal.authorization();
+
+            switch (signal.signalId())
+            {
+            case FLUSH_HEADER_SIGNAL:
+                headerFlushId = Signaler.NO_CANCEL_ID;
+                doNetHeader(traceId, authorization, initialBud);
+                break;
+            default:
+                break;
+            }
+        }
+
         private void doNetBegin(
             long traceId,
             long authorization,
             long affinity,
             ProxyBeginExFW beginEx)
         {
-            assert encodeSlot == NO_SLOT;
-            encodeSlot = encodePool.acquire(initialId);
-            assert encodeSlot != NO_SLOT;
+            assert resolveSlot == NO_SLOT;
 
-            MutableDirectBuffer buffer = encodePool.buffer(encodeSlot);
-            if (beginEx != null)
+            if (beginEx != null && beginEx.address().kind() == INET)
             {
-                encodeSlotOffset = encodeProxy(buffer, beginEx);
+                resolveSlot = encodeArena.acquire(initialId, beginEx.sizeof());
+
+                if (resolveSlot == NO_SLOT)
+                {
+                    app.doAppReset(traceId, authorization);
+                }
+                else
+                {
+                    final MutableDirectBuffer buffer = encodeArena.buffer(resolveSlot);
+                    buffer.putBytes(0, beginEx.buffer(), beginEx.offset(), beginEx.sizeof());
+                    this.affinity = affinity;
+
+                    doNetResolve(traceId, authorization);
+                }
             }
             else
             {
-                encodeSlotOffset = encodeLocal(buffer);
+                doNetConnect(traceId, authorization, affinity, beginEx);
             }
+        }
 
-            receiver = newStream(this::onNetMessage, routeId, initialId, initialSeq, initialAck, initialMax,
-                    traceId, authorization, affinity);
+        private void doNetResolve(
+            long traceId,
+            long authorization)
+        {
+            final MutableDirectBuffer buffer = encodeArena.buffer(resolveSlot);
+            final ProxyBeginExFW beginEx = beginExRO.wrap(buffer, 0, buffer.capacity());
+            final ProxyAddressInetFW inet = beginEx.address().inet();
+            final String sourceName = inet.source().asString();
+            final String destinationName = inet.destination().asString();
+
+            if (destinationAddresses == null)
+            {
+                destinationAddresses = hostCache.lookup(destinationName);
+            }
+
+            if (sourceAddresses == null && sourceName != null)
+            {
+                sourceAddresses = hostCache.lookup(sourceName);
+            }
+
+            if (destinationAddresses == ProxyHostCache.UNRESOLVED || sourceAddresses == ProxyHostCache.UNRESOLVED)
+            {
+                cleanupResolveSlot();
+                app.doAppReset(traceId, authorization);
+            }
+            else if (destinationAddresses == null)
+            {
+                doNetResolve(destinationName);
+            }
+            else if (sourceAddresses == null && sourceName != null)
+            {
+                doNetResolve(sourceName);
+            }
+            else
+            {
+                doNetConnect(traceId, authorization, affinity, beginEx);
+            }
+        }
+
+        private void doNetResolve(
+            String host)
+        {
+            resolvingHost = host;
+            signaler.signalTask(() -> resolvedAddresses = resolveHostOrUnresolved(host),
+                    app.routeId, app.initialId, RESOLVE_HOST_SIGNAL);
+        }
+
+        private void onNetResolved(
+            long traceId,
+            long authorization)
+        {
+            if (resolveSlot != NO_SLOT && resolvingHost != null)
+            {
+                final InetAddress[] resolved = resolvedAddresses;
+                hostCache.cache(resolvingHost, resolved);
+
+                if (destinationAddresses == null)
+                {
+                    destinationAddresses = resolved;
+                }
+                else
+                {
+                    sourceAddresses = resolved;
+                }
+
+                resolvingHost = null;
+                resolvedAddresses = null;
+
+                doNetResolve(traceId, authorization);
+            }
+        }
+
+        private void doNetConnect(
+            long traceId,
+            long authorization,
+            long affinity,
+            ProxyBeginExFW beginEx)
+        {
+            final MutableDirectBuffer buffer = encodeBuffer;
+
+            int length;
+            if (version == 1)
+            {
+                length = encodeProxyV1(buffer, beginEx);
+            }
+            else if (beginEx != null)
+            {
+                length = encodeProxy(buffer, beginEx);
+            }
+            else
+            {
+                length = encodeLocal(buffer);
+            }
+
+            cleanupResolveSlot();
+            encodeSlot = encodeArena.acquire(initialId, length);
+
+            if (encodeSlot == NO_SLOT)
+            {
+                app.doAppReset(traceId, authorization);
+            }
+            else
+            {
+                encodeArena.buffer(encodeSlot).putBytes(0, buffer, 0, length);
+                encodeSlotOffset = length;
+
+                receiver = newStream(this::onNetMessage, routeId, initialId, initialSeq, initialAck, initialMax,
+                        traceId, authorization, affinity);
+            }
         }
 
         private void doNetData(
@@ -688,28 +979,157 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             int reserved,
             OctetsFW payload)
         {
+            if (encodeSlot != NO_SLOT)
+            {
+                final int length = payload != null ? payload.sizeof() : 0;
+
+                if (encodeSlotOffset + length <= encodeBuffer.capacity())
+                {
+                    encodeBuffer.putBytes(0, encodeArena.buffer(encodeSlot), 0, encodeSlotOffset);
+                    if (payload != null)
+                    {
+                        encodeBuffer.putBytes(encodeSlotOffset, payload.buffer(), payload.offset(), length);
+                    }
+                    payload = payloadRO.wrap(encodeBuffer, 0, encodeSlotOffset + length);
+                    reserved += encodeSlotOffset;
+                }
+                else
+                {
+                    doNetHeader(traceId, authorization, budgetId);
+                }
+            }
+
             doData(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
                     traceId, authorization, flags, budgetId, reserved, payload);
 
             initialSeq += reserved;
 
             assert initialAck <= initialSeq;
+
+            cleanupEncodeSlot();
+        }
+
+        private void doNetRelay(
+            DataFW data)
+        {
+            final int reserved = data.reserved();
+
+            doRelay(receiver, routeId, initialId, initialSeq, initialAck, initialMax, data);
+
+            initialSeq += reserved;
+
+            assert initialAck <= initialSeq;
+        }
+
+        private void doNetHeader(
+            long traceId,
+            long authorization,
+            long budgetId)
+        {
+            if (encodeSlot != NO_SLOT && receiver != null)
+            {
+                final DirectBuffer headerBuffer = encodeArena.buffer(encodeSlot);
+                final OctetsFW payload = payloadRO.wrap(headerBuffer, 0, encodeSlotOffset);
+                final int reserved = payload.sizeof() + initialPad;
+
+                doData(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
+                        traceId, authorization, 0x03, budgetId, reserved, payload);
+
+                initialSeq += reserved;
+
+                assert initialAck <= initialSeq;
+
+                cleanupEncodeSlot();
+            }
+        }
+
+        private void doNetHeaderPending(
+            long traceId,
+            long authorization,
+            long budgetId)
+        {
+            doNetHeader(traceId, authorization, budgetId);
+
+            if (headerFlushPending)
+            {
+                headerFlushPending = false;
+                doFlush(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
+                        traceId, authorization, budgetId, headerFlushReserved);
+            }
+
+            if (headerEndPending)
+            {
+                headerEndPending = false;
+                doEnd(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
+                        traceId, authorization);
+            }
+        }
+
+        private boolean headerCredited()
+        {
+            return encodeSlot == NO_SLOT ||
+                initialMax - (int)(initialSeq - initialAck) >= encodeSlotOffset + initialPad;
+        }
+
+        private void cleanupResolveSlot()
+        {
+            if (resolveSlot != NO_SLOT)
+            {
+                encodeArena.release(resolveSlot);
+                resolveSlot = NO_SLOT;
+            }
+        }
+
+        private void cleanupEncodeSlot()
+        {
+            if (encodeSlot != NO_SLOT)
+            {
+                encodeArena.release(encodeSlot);
+                encodeSlot = NO_SLOT;
+                encodeSlotOffset = 0;
+            }
+
+            if (headerFlushId != Signaler.NO_CANCEL_ID)
+            {
+                signaler.cancel(headerFlushId);
+                headerFlushId = Signaler.NO_CANCEL_ID;
+            }
         }
 
         private void doNetEnd(
             long traceId,
             long authorization)
         {
-            doEnd(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
-                    traceId, authorization);
+            if (receiver == null)
+            {
+                cleanupResolveSlot();
+                cleanupEncodeSlot();
+            }
+            else if (!headerCredited())
+            {
+                headerEndPending = true;
+            }
+            else
+            {
+                doNetHeader(traceId, authorization, initialBud);
+                doEnd(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
+                        traceId, authorization);
+            }
         }
 
         private void doNetAbort(
             long traceId,
             long authorization)
         {
-            doAbort(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
-                    traceId, authorization);
+            cleanupResolveSlot();
+            cleanupEncodeSlot();
+            headerEndPending = false;
+            headerFlushPending = false;
+            if (receiver != null)
+            {
+                doAbort(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
+                        traceId, authorization);
+            }
         }
 
         private void doNetFlush(
@@ -718,8 +1138,17 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             long budgetId,
             int reserved)
         {
-            doFlush(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
-                    traceId, authorization, budgetId, reserved);
+            if (receiver != null && !headerCredited())
+            {
+                headerFlushPending = true;
+                headerFlushReserved = Math.max(headerFlushReserved, reserved);
+            }
+            else if (receiver != null)
+            {
+                doNetHeader(traceId, authorization, budgetId);
+                doFlush(receiver, routeId, initialId, initialSeq, initialAck, initialMax,
+                        traceId, authorization, budgetId, reserved);
+            }
         }
 
         private void doNetReset(
@@ -800,6 +1229,177 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             return progress;
         }
 
+        private int encodeProxyV1(
+            MutableDirectBuffer buffer,
+            ProxyBeginExFW beginEx)
+        {
+            ProxyAddressFW address = beginEx != null ? beginEx.address() : null;
+            ProxyAddressFamily kind = address != null ? address.kind() : ProxyAddressFamily.NONE;
+
+            int progress = 0;
+            buffer.putBytes(progress, HEADER_V1, 0, HEADER_V1.capacity());
+            progress += HEADER_V1.capacity();
+
+            switch (kind)
+            {
+            case INET:
+                progress = encodeProxyV1AddressInet(buffer, progress, address);
+                break;
+            case INET4:
+                progress = encodeProxyV1AddressInet4(buffer, progress, address);
+                break;
+            case INET6:
+                progress = encodeProxyV1AddressInet6(buffer, progress, address);
+                break;
+            default:
+                progress = encodeProxyV1Unknown(buffer, progress);
+                break;
+            }
+
+            buffer.putByte(progress++, (byte) '\r');
+            buffer.putByte(progress++, (byte) '\n');
+            return progress;
+        }
+
+        private int encodeProxyV1AddressInet(
+            MutableDirectBuffer buffer,
+            int progress,
+            ProxyAddressFW address)
+        {
+            ProxyAddressInetFW inet = address.inet();
+
+            if (inet.protocol().get() != STREAM)
+            {
+                progress = encodeProxyV1Unknown(buffer, progress);
+            }
+            else
+            {
+                InetAddress destinationInet = destinationAddresses[0];
+                ProxyAddressFamily family = asProxyAddressFamily(destinationInet);
+                assert family == INET4 || family == INET6;
+                InetAddress sourceInet = sourceAddresses != null ? sourceAddresses[0] : getInetAddressLocal(family);
+                assert asProxyAddressFamily(sourceInet) == family;
+
+                DirectBuffer token = family == INET4 ? HEADER_V1_TCP4 : HEADER_V1_TCP6;
+                buffer.putBytes(progress, token, 0, token.capacity());
+                progress += token.capacity();
+                inetAddressRO.wrap(sourceInet.getAddress());
+                progress = encodeProxyV1Address(buffer, progress, inetAddressRO);
+                inetAddressRO.wrap(destinationInet.getAddress());
+                progress = encodeProxyV1Address(buffer, progress, inetAddressRO);
+                progress = encodeProxyV1Ports(buffer, progress, inet.sourcePort(), inet.destinationPort());
+            }
+
+            return progress;
+        }
+
+        private int encodeProxyV1AddressInet4(
+            MutableDirectBuffer buffer,
+            int progress,
+            ProxyAddressFW address)
+        {
+            ProxyAddressInet4FW inet4 = address.inet4();
+
+            if (inet4.protocol().get() != STREAM)
+            {
+                progress = encodeProxyV1Unknown(buffer, progress);
+            }
+            else
+            {
+                buffer.putBytes(progress, HEADER_V1_TCP4, 0, HEADER_V1_TCP4.capacity());
+                progress += HEADER_V1_TCP4.capacity();
+                progress = encodeProxyV1Address(buffer, progress, inet4.source().value());
+                progress = encodeProxyV1Address(buffer, progress, inet4.destination().value());
+                progress = encodeProxyV1Ports(buffer, progress, inet4.sourcePort(), inet4.destinationPort());
+            }
+
+            return progress;
+        }
+
+        private int encodeProxyV1AddressInet6(
+            MutableDirectBuffer buffer,
+            int progress,
+            ProxyAddressFW address)
+        {
+            ProxyAddressInet6FW inet6 = address.inet6();
+
+            if (inet6.protocol().get() != STREAM)
+            {
+                progress = encodeProxyV1Unknown(buffer, progress);
+            }
+            else
+            {
+                buffer.putBytes(progress, HEADER_V1_TCP6, 0, HEADER_V1_TCP6.capacity());
+                progress += HEADER_V1_TCP6.capacity();
+                progress = encodeProxyV1Address(buffer, progress, inet6.source().value());
+                progress = encodeProxyV1Address(buffer, progress, inet6.destination().value());
+                progress = encodeProxyV1Ports(buffer, progress, inet6.sourcePort(), inet6.destinationPort());
+            }
+
+            return progress;
+        }
+
+        private int encodeProxyV1Unknown(
+            MutableDirectBuffer buffer,
+            int progress)
+        {
+            buffer.putBytes(progress, HEADER_V1_UNKNOWN, 0, HEADER_V1_UNKNOWN.capacity());
+            progress += HEADER_V1_UNKNOWN.capacity();
+            return progress;
+        }
+
+        private int encodeProxyV1Address(
+            MutableDirectBuffer buffer,
+            int progress,
+            DirectBuffer address)
+        {
+            if (address.capacity() == 4)
+            {
+                for (int index = 0; index < 4; index++)
+                {
+                    if (index != 0)
+                    {
+                        buffer.putByte(progress++, (byte) '.');
+                    }
+                    progress += buffer.putNaturalIntAscii(progress, address.getByte(index) & 0xff);
+                }
+            }
+            else
+            {
+                for (int index = 0; index < 16; index += Short.BYTES)
+                {
+                    if (index != 0)
+                    {
+                        buffer.putByte(progress++, (byte) ':');
+                    }
+
+                    int group = address.getShort(index, BIG_ENDIAN) & 0xffff;
+                    for (int shift = 12; shift >= 0; shift -= 4)
+                    {
+                        if (shift == 0 || group >> shift != 0)
+                        {
+                            buffer.putByte(progress++, HEX_DIGITS[(group >> shift) & 0x0f]);
+                        }
+                    }
+                }
+            }
+
+            buffer.putByte(progress++, (byte) ' ');
+            return progress;
+        }
+
+        private int encodeProxyV1Ports(
+            MutableDirectBuffer buffer,
+            int progress,
+            int sourcePort,
+            int destinationPort)
+        {
+            progress += buffer.putNaturalIntAscii(progress, sourcePort);
+            buffer.putByte(progress++, (byte) ' ');
+            progress += buffer.putNaturalIntAscii(progress, destinationPort);
+            return progress;
+        }
+
         private int encodeProxyAddress(
             MutableDirectBuffer buffer,
             int progress,
@@ -831,14 +1431,12 @@ public final class ProxyClientFactory implements ProxyStreamFactory
             ProxyAddressFW address)
         {
             ProxyAddressInetFW inet = address.inet();
-            String sourceName = inet.source().asString();
-            String destinationName = inet.destination().asString();
 
-            InetAddress destinationInet = resolveHost.apply(destinationName)[0];
+            InetAddress destinationInet = destinationAddresses[0];
             byte[] destination = destinationInet.getAddress();
             ProxyAddressFamily family = asProxyAddressFamily(destinationInet);
             assert family == INET4 || family == INET6;
-            InetAddress sourceInet = sourceName != null ? resolveHost.apply(sourceName)[0] : getInetAddressLocal(family);
+            InetAddress sourceInet = sourceAddresses != null ? sourceAddresses[0] : getInetAddressLocal(family);
             byte[] source = sourceInet.getAddress();
             assert asProxyAddressFamily(sourceInet) == family;
 
@@ -1192,6 +1790,29 @@ public final class ProxyClientFactory implements ProxyStreamFactory
         receiver.accept(data.typeId(), data.buffer(), data.offset(), data.sizeof());
     }
 
+    // rewrites the stream header of the received DATA frame in place; only valid while handling that frame,
+    // as reaktor keeps the region stable until the handler returns and never reads it again afterwards
+    private void doRelay(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        long sequence,
+        long acknowledge,
+        int maximum,
+        DataFW data)
+    {
+        final MutableDirectBuffer buffer = (MutableDirectBuffer) data.buffer();
+        final int offset = data.offset();
+
+        buffer.putLong(offset + DataFW.FIELD_OFFSET_ROUTE_ID, routeId);
+        buffer.putLong(offset + DataFW.FIELD_OFFSET_STREAM_ID, streamId);
+        buffer.putLong(offset + DataFW.FIELD_OFFSET_SEQUENCE, sequence);
+        buffer.putLong(offset + DataFW.FIELD_OFFSET_ACKNOWLEDGE, acknowledge);
+        buffer.putInt(offset + DataFW.FIELD_OFFSET_MAXIMUM, maximum);
+
+        receiver.accept(data.typeId(), buffer, offset, data.sizeof());
+    }
+
     private void doReset(
         MessageConsumer receiver,
         long routeId,
@@ -1344,6 +1965,23 @@ public final class ProxyClientFactory implements ProxyStreamFactory
         receiver.accept(flush.typeId(), flush.buffer(), flush.offset(), flush.sizeof());
     }
 
+    private InetAddress[] resolveHostOrUnresolved(
+        String host)
+    {
+        InetAddress[] addresses;
+
+        try
+        {
+            addresses = resolveHost.apply(host);
+        }
+        catch (Exception ex)
+        {
+            addresses = null;
+        }
+
+        return addresses != null && addresses.length != 0 ? addresses : ProxyHostCache.UNRESOLVED;
+    }
+
     private static ProxyAddressFamily asProxyAddressFamily(
         InetAddress address)
     {
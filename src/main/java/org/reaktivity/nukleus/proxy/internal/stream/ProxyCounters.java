@@ -0,0 +1,163 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+import org.reaktivity.nukleus.proxy.internal.types.codec.ProxyAddrFamily;
+import org.reaktivity.nukleus.proxy.internal.types.codec.ProxyAddrProtocol;
+
+final class ProxyCounters
+{
+    final LongSupplier headersLocal;
+    final LongSupplier headersProxy;
+    final LongSupplier headersInet4;
+    final LongSupplier headersInet6;
+    final LongSupplier headersUnix;
+    final LongSupplier headersStream;
+    final LongSupplier headersDatagram;
+
+    final LongSupplier tlvsAlpn;
+    final LongSupplier tlvsAuthority;
+    final LongSupplier tlvsCrc32c;
+    final LongSupplier tlvsNoop;
+    final LongSupplier tlvsUniqueId;
+    final LongSupplier tlvsSsl;
+    final LongSupplier tlvsNetns;
+    final LongSupplier tlvsUnknown;
+
+    final LongSupplier crc32cFailures;
+    final LongSupplier versionRejects;
+    final LongSupplier slotFailures;
+    final LongSupplier headerTimeouts;
+    final LongSupplier localReplies;
+
+    final LongSupplier routeHits;
+    final LongSupplier routeMisses;
+    final LongSupplier routeFailovers;
+    final LongSupplier routeRateLimited;
+
+    final ProxyHistogram headerLatency;
+    final ProxyHistogram resolveLatency;
+
+    final ProxyRouteCounters routes;
+
+    ProxyCounters(
+        int routes,
+        Function<String, LongSupplier> supplyCounter,
+        Function<String, LongConsumer> supplyAccumulator)
+    {
+        this.headersLocal = supplyCounter.apply("proxy.headers.local");
+        this.headersProxy = supplyCounter.apply("proxy.headers.proxy");
+        this.headersInet4 = supplyCounter.apply("proxy.headers.inet4");
+        this.headersInet6 = supplyCounter.apply("proxy.headers.inet6");
+        this.headersUnix = supplyCounter.apply("proxy.headers.unix");
+        this.headersStream = supplyCounter.apply("proxy.headers.stream");
+        this.headersDatagram = supplyCounter.apply("proxy.headers.datagram");
+        this.tlvsAlpn = supplyCounter.apply("proxy.tlvs.alpn");
+        this.tlvsAuthority = supplyCounter.apply("proxy.tlvs.authority");
+        this.tlvsCrc32c = supplyCounter.apply("proxy.tlvs.crc32c");
+        this.tlvsNoop = supplyCounter.apply("proxy.tlvs.noop");
+        this.tlvsUniqueId = supplyCounter.apply("proxy.tlvs.unique.id");
+        this.tlvsSsl = supplyCounter.apply("proxy.tlvs.ssl");
+        this.tlvsNetns = supplyCounter.apply("proxy.tlvs.netns");
+        this.tlvsUnknown = supplyCounter.apply("proxy.tlvs.unknown");
+        this.crc32cFailures = supplyCounter.apply("proxy.crc32c.failures");
+        this.versionRejects = supplyCounter.apply("proxy.version.rejects");
+        this.slotFailures = supplyCounter.apply("proxy.slot.failures");
+        this.headerTimeouts = supplyCounter.apply("proxy.header.timeouts");
+        this.localReplies = supplyCounter.apply("proxy.local.replies");
+        this.routeHits = supplyCounter.apply("proxy.route.hits");
+        this.routeMisses = supplyCounter.apply("proxy.route.misses");
+        this.routeFailovers = supplyCounter.apply("proxy.route.failovers");
+        this.routeRateLimited = supplyCounter.apply("proxy.route.rate.limited");
+        this.headerLatency = new ProxyHistogram("proxy.header.latency", supplyCounter, supplyAccumulator);
+        this.resolveLatency = new ProxyHistogram("proxy.resolve.latency", supplyCounter, supplyAccumulator);
+        this.routes = new ProxyRouteCounters(routes, supplyCounter, supplyAccumulator);
+    }
+
+    void onHeader(
+        ProxyAddrFamily family,
+        ProxyAddrProtocol transport)
+    {
+        if (family == null)
+        {
+            headersLocal.getAsLong();
+        }
+        else
+        {
+            headersProxy.getAsLong();
+
+            switch (family)
+            {
+            case INET4:
+                headersInet4.getAsLong();
+                break;
+            case INET6:
+                headersInet6.getAsLong();
+                break;
+            case UNIX:
+                headersUnix.getAsLong();
+                break;
+            default:
+                break;
+            }
+
+            if (transport == ProxyAddrProtocol.DATAGRAM)
+            {
+                headersDatagram.getAsLong();
+            }
+            else if (transport == ProxyAddrProtocol.STREAM)
+            {
+                headersStream.getAsLong();
+            }
+        }
+    }
+
+    void onTlv(
+        int type)
+    {
+        switch (type)
+        {
+        case 0x01:
+            tlvsAlpn.getAsLong();
+            break;
+        case 0x02:
+            tlvsAuthority.getAsLong();
+            break;
+        case 0x03:
+            tlvsCrc32c.getAsLong();
+            break;
+        case 0x04:
+            tlvsNoop.getAsLong();
+            break;
+        case 0x05:
+            tlvsUniqueId.getAsLong();
+            break;
+        case 0x20:
+            tlvsSsl.getAsLong();
+            break;
+        case 0x30:
+            tlvsNetns.getAsLong();
+            break;
+        default:
+            tlvsUnknown.getAsLong();
+            break;
+        }
+    }
+}
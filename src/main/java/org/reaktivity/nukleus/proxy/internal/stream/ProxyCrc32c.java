@@ -0,0 +1,111 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+import org.agrona.DirectBuffer;
+
+final class ProxyCrc32c
+{
+    private static final int POLYNOMIAL = 0x82f63b78;
+
+    private static final int[] TABLE0 = new int[256];
+    private static final int[] TABLE1 = new int[256];
+    private static final int[] TABLE2 = new int[256];
+    private static final int[] TABLE3 = new int[256];
+    private static final int[] TABLE4 = new int[256];
+    private static final int[] TABLE5 = new int[256];
+    private static final int[] TABLE6 = new int[256];
+    private static final int[] TABLE7 = new int[256];
+
+    static
+    {
+        for (int i = 0; i < 256; i++)
+        {
+            int crc = i;
+            for (int bit = 0; bit < Byte.SIZE; bit++)
+            {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+            }
+            TABLE0[i] = crc;
+        }
+
+        final int[][] tables = { TABLE0, TABLE1, TABLE2, TABLE3, TABLE4, TABLE5, TABLE6, TABLE7 };
+        for (int t = 1; t < tables.length; t++)
+        {
+            for (int i = 0; i < 256; i++)
+            {
+                final int previous = tables[t - 1][i];
+                tables[t][i] = (previous >>> 8) ^ TABLE0[previous & 0xff];
+            }
+        }
+    }
+
+    static int update(
+        int crc32c,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final int limit = index + length;
+
+        int crc = ~crc32c;
+        int progress = index;
+
+        for (; limit - progress >= Long.BYTES; progress += Long.BYTES)
+        {
+            final long word = buffer.getLong(progress, LITTLE_ENDIAN);
+            final int low = crc ^ (int) word;
+            final int high = (int) (word >>> 32);
+
+            crc = TABLE7[low & 0xff] ^
+                  TABLE6[(low >>> 8) & 0xff] ^
+                  TABLE5[(low >>> 16) & 0xff] ^
+                  TABLE4[low >>> 24] ^
+                  TABLE3[high & 0xff] ^
+                  TABLE2[(high >>> 8) & 0xff] ^
+                  TABLE1[(high >>> 16) & 0xff] ^
+                  TABLE0[high >>> 24];
+        }
+
+        for (; progress < limit; progress++)
+        {
+            crc = (crc >>> 8) ^ TABLE0[(crc ^ buffer.getByte(progress)) & 0xff];
+        }
+
+        return ~crc;
+    }
+
+    static int updateZeros(
+        int crc32c,
+        int length)
+    {
+        int crc = ~crc32c;
+
+        for (int i = 0; i < length; i++)
+        {
+            crc = (crc >>> 8) ^ TABLE0[crc & 0xff];
+        }
+
+        return ~crc;
+    }
+
+    private ProxyCrc32c()
+    {
+        // utility
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import static org.reaktivity.reaktor.nukleus.buffer.BufferPool.NO_SLOT;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.reaktor.nukleus.buffer.BufferPool;
+
+final class ProxyHeaderArena
+{
+    private final int cellCapacity;
+    private final int cellCount;
+    private final MutableDirectBuffer[] cells;
+    private final int[] freeCells;
+    private final BufferPool overflowPool;
+
+    private int freeCount;
+
+    ProxyHeaderArena(
+        int cellCapacity,
+        int cellCount,
+        BufferPool overflowPool)
+    {
+        final byte[] memory = new byte[cellCapacity * cellCount];
+
+        this.cellCapacity = cellCapacity;
+        this.cellCount = cellCount;
+        this.cells = new MutableDirectBuffer[cellCount];
+        this.freeCells = new int[cellCount];
+        this.overflowPool = overflowPool;
+
+        for (int cell = 0; cell < cellCount; cell++)
+        {
+            cells[cell] = new UnsafeBuffer(memory, cell * cellCapacity, cellCapacity);
+            freeCells[cell] = cellCount - 1 - cell;
+        }
+        this.freeCount = cellCount;
+    }
+
+    int acquire(
+        long streamId,
+        int minCapacity)
+    {
+        int slot = NO_SLOT;
+
+        if (minCapacity <= cellCapacity && freeCount > 0)
+        {
+            slot = freeCells[--freeCount];
+        }
+        else if (minCapacity <= overflowPool.slotCapacity())
+        {
+            final int overflowSlot = overflowPool.acquire(streamId);
+            if (overflowSlot != NO_SLOT)
+            {
+                slot = cellCount + overflowSlot;
+            }
+        }
+
+        return slot;
+    }
+
+    int grow(
+        long streamId,
+        int slot,
+        int minCapacity)
+    {
+        int newSlot = slot;
+
+        if (minCapacity > capacity(slot))
+        {
+            newSlot = acquire(streamId, minCapacity);
+            if (newSlot != NO_SLOT)
+            {
+                buffer(newSlot).putBytes(0, buffer(slot), 0, capacity(slot));
+                release(slot);
+            }
+        }
+
+        return newSlot;
+    }
+
+    MutableDirectBuffer buffer(
+        int slot)
+    {
+        return slot < cellCount ? cells[slot] : overflowPool.buffer(slot - cellCount);
+    }
+
+    int capacity(
+        int slot)
+    {
+        return slot < cellCount ? cellCapacity : overflowPool.slotCapacity();
+    }
+
+    void release(
+        int slot)
+    {
+        if (slot < cellCount)
+        {
+            freeCells[freeCount++] = slot;
+        }
+        else
+        {
+            overflowPool.release(slot - cellCount);
+        }
+    }
+
+    int acquiredCells()
+    {
+        return cellCount - freeCount;
+    }
+}
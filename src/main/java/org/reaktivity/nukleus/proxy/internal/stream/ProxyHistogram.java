@@ -0,0 +1,57 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+final class ProxyHistogram
+{
+    static final int BUCKETS = 32;
+    static final int BUCKET_SHIFT = 10;
+
+    private final LongSupplier[] buckets;
+    private final LongConsumer total;
+
+    ProxyHistogram(
+        String name,
+        Function<String, LongSupplier> supplyCounter,
+        Function<String, LongConsumer> supplyAccumulator)
+    {
+        this.buckets = new LongSupplier[BUCKETS];
+        for (int index = 0; index < BUCKETS; index++)
+        {
+            buckets[index] = supplyCounter.apply(String.format("%s.bucket.%02d", name, index));
+        }
+        this.total = supplyAccumulator.apply(String.format("%s.total", name));
+    }
+
+    void record(
+        long nanos)
+    {
+        final long value = Math.max(nanos, 0L);
+        buckets[bucket(value)].getAsLong();
+        total.accept(value);
+    }
+
+    static int bucket(
+        long nanos)
+    {
+        final int exponent = Long.SIZE - Long.numberOfLeadingZeros(nanos >> BUCKET_SHIFT);
+        return Math.min(exponent, BUCKETS - 1);
+    }
+}
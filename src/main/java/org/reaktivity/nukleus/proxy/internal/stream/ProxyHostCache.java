@@ -0,0 +1,98 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import java.net.InetAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+final class ProxyHostCache
+{
+    static final InetAddress[] UNRESOLVED = new InetAddress[0];
+
+    private final Map<String, Entry> entries;
+    private final long ttl;
+    private final long negativeTtl;
+    private final LongSupplier currentTimeMillis;
+
+    ProxyHostCache(
+        int capacity,
+        long ttl,
+        long negativeTtl,
+        LongSupplier currentTimeMillis)
+    {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<String, Entry> eldest)
+            {
+                return size() > capacity;
+            }
+        };
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    InetAddress[] lookup(
+        String host)
+    {
+        InetAddress[] addresses = null;
+
+        final Entry entry = entries.get(host);
+        if (entry != null)
+        {
+            if (entry.expiresAt - currentTimeMillis.getAsLong() > 0L)
+            {
+                addresses = entry.addresses;
+            }
+            else
+            {
+                entries.remove(host);
+            }
+        }
+
+        return addresses;
+    }
+
+    void cache(
+        String host,
+        InetAddress[] addresses)
+    {
+        final boolean resolved = addresses != null && addresses.length != 0;
+        final long expiresAt = currentTimeMillis.getAsLong() + (resolved ? ttl : negativeTtl);
+
+        entries.put(host, new Entry(resolved ? addresses : UNRESOLVED, expiresAt));
+    }
+
+    private static final class Entry
+    {
+        private final InetAddress[] addresses;
+        private final long expiresAt;
+
+        private Entry(
+            InetAddress[] addresses,
+            long expiresAt)
+        {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import java.util.concurrent.TimeUnit;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.reaktivity.nukleus.proxy.internal.config.ProxyRateLimit;
+import org.reaktivity.nukleus.proxy.internal.types.OctetsFW;
+import org.reaktivity.nukleus.proxy.internal.types.ProxyAddressFW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
+
+final class ProxyRateLimiter
+{
+    private static final long TOKEN = TimeUnit.SECONDS.toNanos(1L);
+    private static final int PROBES = 8;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long INET4_SEED = 4L;
+    private static final long INET6_SEED = 6L;
+
+    private final int inet4Prefix;
+    private final int inet6Prefix;
+    private final long rate;
+    private final long capacity;
+    private final long fillNanos;
+    private final int mask;
+    private final long[] keys;
+    private final long[] tokens;
+    private final long[] updatedAt;
+
+    ProxyRateLimiter(
+        int capacity,
+        ProxyRateLimit limit)
+    {
+        final int size = BitUtil.findNextPositivePowerOfTwo(capacity);
+
+        this.inet4Prefix = limit.inet4Prefix;
+        this.inet6Prefix = limit.inet6Prefix;
+        this.rate = limit.rate;
+        this.capacity = limit.burst * TOKEN;
+        this.fillNanos = this.capacity / this.rate;
+        this.mask = size - 1;
+        this.keys = new long[size];
+        this.tokens = new long[size];
+        this.updatedAt = new long[size];
+    }
+
+    boolean tryAcquire(
+        ProxyBeginExFW beginEx,
+        long now)
+    {
+        final ProxyAddressFW address = beginEx != null ? beginEx.address() : null;
+
+        boolean acquired = true;
+
+        if (address != null)
+        {
+            switch (address.kind())
+            {
+            case INET4:
+                acquired = tryAcquire(key(INET4_SEED, address.inet4().source(), inet4Prefix), now);
+                break;
+            case INET6:
+                acquired = tryAcquire(key(INET6_SEED, address.inet6().source(), inet6Prefix), now);
+                break;
+            default:
+                break;
+            }
+        }
+
+        return acquired;
+    }
+
+    private boolean tryAcquire(
+        long key,
+        long now)
+    {
+        final int index = (int) key & mask;
+
+        int slot = -1;
+        int victim = index;
+
+        for (int probe = 0; probe < PROBES && slot == -1; probe++)
+        {
+            final int candidate = (index + probe) & mask;
+            final long candidateKey = keys[candidate];
+
+            if (candidateKey == key || candidateKey == 0L)
+            {
+                slot = candidate;
+            }
+            else if (updatedAt[candidate] - updatedAt[victim] < 0L)
+            {
+                victim = candidate;
+            }
+        }
+
+        if (slot == -1)
+        {
+            slot = victim;
+        }
+
+        if (keys[slot] != key)
+        {
+            keys[slot] = key;
+            tokens[slot] = capacity;
+        }
+        else
+        {
+            final long elapsed = Math.max(now - updatedAt[slot], 0L);
+            final long refill = elapsed >= fillNanos ? capacity : elapsed * rate;
+            tokens[slot] = Math.min(tokens[slot] + refill, capacity);
+        }
+
+        updatedAt[slot] = now;
+
+        final boolean acquired = tokens[slot] >= TOKEN;
+
+        if (acquired)
+        {
+            tokens[slot] -= TOKEN;
+        }
+
+        return acquired;
+    }
+
+    private static long key(
+        long seed,
+        OctetsFW source,
+        int prefix)
+    {
+        final DirectBuffer buffer = source.buffer();
+        final int offset = source.offset();
+        final int bytes = Math.min(prefix >> 3, source.sizeof());
+        final int bits = prefix & 0x07;
+
+        long hash = FNV_OFFSET_BASIS ^ seed;
+        hash *= FNV_PRIME;
+
+        for (int index = 0; index < bytes; index++)
+        {
+            hash ^= buffer.getByte(offset + index) & 0xff;
+            hash *= FNV_PRIME;
+        }
+
+        if (bits != 0 && bytes < source.sizeof())
+        {
+            hash ^= buffer.getByte(offset + bytes) & (0xff << (8 - bits)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash != 0L ? hash : 1L;
+    }
+}
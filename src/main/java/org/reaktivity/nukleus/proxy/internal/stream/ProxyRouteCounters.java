@@ -0,0 +1,78 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+final class ProxyRouteCounters
+{
+    private final LongConsumer[] streams;
+    private final LongConsumer[] initialBytes;
+    private final LongSupplier[] initialFrames;
+    private final LongConsumer[] replyBytes;
+    private final LongSupplier[] replyFrames;
+
+    ProxyRouteCounters(
+        int routes,
+        Function<String, LongSupplier> supplyCounter,
+        Function<String, LongConsumer> supplyAccumulator)
+    {
+        this.streams = new LongConsumer[routes];
+        this.initialBytes = new LongConsumer[routes];
+        this.initialFrames = new LongSupplier[routes];
+        this.replyBytes = new LongConsumer[routes];
+        this.replyFrames = new LongSupplier[routes];
+
+        for (int index = 0; index < routes; index++)
+        {
+            streams[index] = supplyAccumulator.apply(String.format("proxy.route.%d.streams", index));
+            initialBytes[index] = supplyAccumulator.apply(String.format("proxy.route.%d.initial.bytes", index));
+            initialFrames[index] = supplyCounter.apply(String.format("proxy.route.%d.initial.frames", index));
+            replyBytes[index] = supplyAccumulator.apply(String.format("proxy.route.%d.reply.bytes", index));
+            replyFrames[index] = supplyCounter.apply(String.format("proxy.route.%d.reply.frames", index));
+        }
+    }
+
+    void onOpened(
+        int route)
+    {
+        streams[route].accept(1L);
+    }
+
+    void onClosed(
+        int route)
+    {
+        streams[route].accept(-1L);
+    }
+
+    void onInitialData(
+        int route,
+        int length)
+    {
+        initialBytes[route].accept(length);
+        initialFrames[route].getAsLong();
+    }
+
+    void onReplyData(
+        int route,
+        int length)
+    {
+        replyBytes[route].accept(length);
+        replyFrames[route].getAsLong();
+    }
+}
@@ -17,18 +17,21 @@ package org.reaktivity.nukleus.proxy.internal.stream;
 
 import static java.nio.ByteOrder.BIG_ENDIAN;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.reaktivity.nukleus.proxy.internal.config.ProxyOptions.HEADER_TIMEOUT_DEFAULT;
 import static org.reaktivity.reaktor.nukleus.buffer.BufferPool.NO_SLOT;
 
-import java.nio.ByteBuffer;
 import java.util.function.LongUnaryOperator;
-import java.util.zip.CRC32C;
 
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.reaktivity.nukleus.proxy.internal.ProxyConfiguration;
 import org.reaktivity.nukleus.proxy.internal.ProxyNukleus;
+import org.reaktivity.nukleus.proxy.internal.config.ProxyBalancer;
 import org.reaktivity.nukleus.proxy.internal.config.ProxyBinding;
+import org.reaktivity.nukleus.proxy.internal.config.ProxyOptions;
 import org.reaktivity.nukleus.proxy.internal.config.ProxyRoute;
 import org.reaktivity.nukleus.proxy.internal.types.Flyweight;
 import org.reaktivity.nukleus.proxy.internal.types.OctetsFW;
@@ -51,10 +54,11 @@ import org.reaktivity.nukleus.proxy.internal.types.stream.EndFW;
 import org.reaktivity.nukleus.proxy.internal.types.stream.FlushFW;
 import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
 import org.reaktivity.nukleus.proxy.internal.types.stream.ResetFW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.SignalFW;
 import org.reaktivity.nukleus.proxy.internal.types.stream.WindowFW;
 import org.reaktivity.reaktor.config.Binding;
 import org.reaktivity.reaktor.nukleus.ElektronContext;
-import org.reaktivity.reaktor.nukleus.buffer.BufferPool;
+import org.reaktivity.reaktor.nukleus.concurrent.Signaler;
 import org.reaktivity.reaktor.nukleus.function.MessageConsumer;
 import org.reaktivity.reaktor.nukleus.stream.StreamFactory;
 
@@ -62,6 +66,13 @@ public final class ProxyServerFactory implements ProxyStreamFactory
 {
     private static final DirectBuffer HEADER_V2 = new UnsafeBuffer("\r\n\r\n\0\r\nQUIT\n".getBytes(US_ASCII));
     private static final int HEADER_V2_SIZE = HEADER_V2.capacity();
+    private static final DirectBuffer HEADER_V1 = new UnsafeBuffer("PROXY ".getBytes(US_ASCII));
+    private static final int HEADER_V1_SIZE = HEADER_V1.capacity();
+    private static final int HEADER_V1_MAX_SIZE = 107;
+    private static final DirectBuffer HEADER_V1_TCP4 = new UnsafeBuffer("TCP4 ".getBytes(US_ASCII));
+    private static final DirectBuffer HEADER_V1_TCP6 = new UnsafeBuffer("TCP6 ".getBytes(US_ASCII));
+    private static final DirectBuffer HEADER_V1_UNKNOWN = new UnsafeBuffer("UNKNOWN".getBytes(US_ASCII));
+    private static final int HEADER_V1_BEGIN_EX_MAX_SIZE = 64;
     private static final DirectBuffer EMPTY_BUFFER = new UnsafeBuffer(0, 0);
     private static final OctetsFW EMPTY_OCTETS = new OctetsFW().wrap(EMPTY_BUFFER, 0, 0);
 
@@ -69,11 +80,44 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     private static final int PROXY_ADDRESS_LENGTH_INET6 = 36;
     private static final int PROXY_ADDRESS_LENGTH_UNIX = 216;
 
+    private static final int HEADER_ENCODE_PADDING = 16;
+
+    private static final int HEADER_TIMEOUT_SIGNAL = 1;
+
+    private static final int DECODE_HEADER = 0;
+    private static final int DECODE_HEADER_V1 = 1;
+    private static final int DECODE_VERSION = 2;
+    private static final int DECODE_COMMAND = 3;
+    private static final int DECODE_LOCAL = 4;
+    private static final int DECODE_PROXY = 5;
+    private static final int DECODE_PROXY_INET4 = 6;
+    private static final int DECODE_PROXY_INET6 = 7;
+    private static final int DECODE_PROXY_UNIX = 8;
+    private static final int DECODE_PROXY_TLV = 9;
+    private static final int DECODE_PROXY_TLV_ALPN = 10;
+    private static final int DECODE_PROXY_TLV_AUTHORITY = 11;
+    private static final int DECODE_PROXY_TLV_CRC32C = 12;
+    private static final int DECODE_PROXY_TLV_SKIP = 13;
+    private static final int DECODE_PROXY_TLV_UNIQUE_ID = 14;
+    private static final int DECODE_PROXY_TLV_SSL = 15;
+    private static final int DECODE_PROXY_TLV_NETNS = 16;
+    private static final int DECODE_PROXY_TLV_SSL_SUB_TLV = 17;
+    private static final int DECODE_PROXY_TLV_SSL_SUB_TLV_SKIP = 18;
+    private static final int DECODE_PROXY_TLV_SSL_VERSION = 19;
+    private static final int DECODE_PROXY_TLV_SSL_COMMON_NAME = 20;
+    private static final int DECODE_PROXY_TLV_SSL_CIPHER = 21;
+    private static final int DECODE_PROXY_TLV_SSL_SIGNATURE = 22;
+    private static final int DECODE_PROXY_TLV_SSL_KEY = 23;
+    private static final int DECODE_IGNORE = 24;
+    private static final int DECODE_IGNORE_ALL = 25;
+    private static final int DECODE_DATA = 26;
+
     private final BeginFW beginRO = new BeginFW();
     private final DataFW dataRO = new DataFW();
     private final EndFW endRO = new EndFW();
     private final AbortFW abortRO = new AbortFW();
     private final FlushFW flushRO = new FlushFW();
+    private final SignalFW signalRO = new SignalFW();
 
     private final ProxyBeginExFW beginExRO = new ProxyBeginExFW();
 
@@ -101,42 +145,28 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     private final String16FW tlvStringRO = new String16FW(BIG_ENDIAN);
     private final ProxyTlvSslFW tlvSslRO = new ProxyTlvSslFW();
 
+    private final MutableDirectBuffer addressV1RW = new UnsafeBuffer(new byte[PROXY_ADDRESS_LENGTH_INET6]);
+
     private final ProxyAddressFW.Builder addressRW = new ProxyAddressFW.Builder();
     private final ProxyInfoFW.Builder infoRW = new ProxyInfoFW.Builder();
 
-    private final ProxyNetServerDecoder decodeHeader = this::decodeHeader;
-    private final ProxyNetServerDecoder decodeVersion = this::decodeVersion;
-    private final ProxyNetServerDecoder decodeCommand = this::decodeCommand;
-    private final ProxyNetServerDecoder decodeLocal = this::decodeLocal;
-    private final ProxyNetServerDecoder decodeProxy = this::decodeProxy;
-    private final ProxyNetServerDecoder decodeProxyInet4 = this::decodeProxyInet4;
-    private final ProxyNetServerDecoder decodeProxyInet6 = this::decodeProxyInet6;
-    private final ProxyNetServerDecoder decodeProxyUnix = this::decodeProxyUnix;
-    private final ProxyNetServerDecoder decodeProxyTlv = this::decodeProxyTlv;
-    private final ProxyNetServerDecoder decodeProxyTlvAlpn = this::decodeProxyTlvAlpn;
-    private final ProxyNetServerDecoder decodeProxyTlvAuthority = this::decodeProxyTlvAuthority;
-    private final ProxyNetServerDecoder decodeProxyTlvCrc32c = this::decodeProxyTlvCrc32c;
-    private final ProxyNetServerDecoder decodeProxyTlvIgnore = this::decodeProxyTlvIgnore;
-    private final ProxyNetServerDecoder decodeProxyTlvUniqueId = this::decodeProxyTlvUniqueId;
-    private final ProxyNetServerDecoder decodeProxyTlvSsl = this::decodeProxyTlvSsl;
-    private final ProxyNetServerDecoder decodeProxyTlvNetns = this::decodeProxyTlvNetns;
-    private final ProxyNetServerDecoder decodeProxyTlvSslSubTlv = this::decodeProxyTlvSslSubTlv;
-    private final ProxyNetServerDecoder decodeProxyTlvSslSubTlvIgnore = this::decodeProxyTlvSslSubTlvIgnore;
-    private final ProxyNetServerDecoder decodeProxyTlvSslVersion = this::decodeProxyTlvSslVersion;
-    private final ProxyNetServerDecoder decodeProxyTlvSslCommonName = this::decodeProxyTlvSslCommonName;
-    private final ProxyNetServerDecoder decodeProxyTlvSslCipher = this::decodeProxyTlvSslCipher;
-    private final ProxyNetServerDecoder decodeProxyTlvSslSignature = this::decodeProxyTlvSslSignature;
-    private final ProxyNetServerDecoder decodeProxyTlvSslKey = this::decodeProxyTlvSslKey;
-    private final ProxyNetServerDecoder decodeIgnore = this::decodeIgnore;
-    private final ProxyNetServerDecoder decodeIgnoreAll = this::decodeIgnoreAll;
-    private final ProxyNetServerDecoder decodeData = this::decodeData;
 
     private final ProxyRouter router;
     private final MutableDirectBuffer writeBuffer;
-    private final BufferPool decodePool;
+    private final ProxyHeaderArena headerArena;
     private final StreamFactory streamFactory;
+    private final Signaler signaler;
     private final LongUnaryOperator supplyInitialId;
     private final LongUnaryOperator supplyReplyId;
+    private final ElektronContext context;
+    private final long headerTimeout;
+    private final int headerWindow;
+    private final boolean relayInPlace;
+    private final int failoverRetries;
+    private final int rateLimitCapacity;
+    private final Long2ObjectHashMap<ProxyCounters> counters;
+    private final Long2ObjectHashMap<OctetsFW> localReplies;
+    private final Long2ObjectHashMap<ProxyRateLimiter> rateLimiters;
 
     private final DirectBuffer headerRO = EMPTY_BUFFER;
 
@@ -146,10 +176,21 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         this.router = new ProxyRouter(context.supplyTypeId(ProxyNukleus.NAME));
         this.writeBuffer = context.writeBuffer();
-        this.decodePool = context.bufferPool();
+        this.headerArena = new ProxyHeaderArena(config.headerArenaCellCapacity(), config.headerArenaCells(),
+                context.bufferPool());
         this.streamFactory = context.streamFactory();
+        this.signaler = context.signaler();
         this.supplyInitialId = context::supplyInitialId;
         this.supplyReplyId = context::supplyReplyId;
+        this.context = context;
+        this.headerTimeout = config.headerTimeout();
+        this.headerWindow = Math.max(config.headerArenaCellCapacity(), HEADER_V2_SIZE + Integer.BYTES);
+        this.relayInPlace = config.relayInPlace();
+        this.failoverRetries = config.failoverRetries();
+        this.rateLimitCapacity = config.rateLimitCapacity();
+        this.counters = new Long2ObjectHashMap<>();
+        this.localReplies = new Long2ObjectHashMap<>();
+        this.rateLimiters = new Long2ObjectHashMap<>();
     }
 
     @Override
@@ -158,6 +199,24 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         ProxyBinding proxyBinding = new ProxyBinding(binding);
         router.attach(proxyBinding);
+        counters.put(binding.id, new ProxyCounters(proxyBinding.routes.size() + 1,
+            name -> context.supplyCounter(binding.id, name),
+            name -> context.supplyAccumulator(binding.id, name)));
+
+        final ProxyOptions options = proxyBinding.options;
+        if (options != null && options.local != null)
+        {
+            final byte[] payload = options.local.payload != null ? options.local.payload.getBytes(UTF_8) : null;
+            final OctetsFW localReply = payload != null
+                    ? new OctetsFW().wrap(new UnsafeBuffer(payload), 0, payload.length)
+                    : EMPTY_OCTETS;
+            localReplies.put(binding.id, localReply);
+        }
+
+        if (options != null && options.rateLimit != null)
+        {
+            rateLimiters.put(binding.id, new ProxyRateLimiter(rateLimitCapacity, options.rateLimit));
+        }
     }
 
     @Override
@@ -165,6 +224,9 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         long bindingId)
     {
         router.detach(bindingId);
+        counters.remove(bindingId);
+        localReplies.remove(bindingId);
+        rateLimiters.remove(bindingId);
     }
 
     @Override
@@ -185,7 +247,13 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         final ProxyBinding binding = router.lookup(routeId);
         if (binding != null)
         {
-            newStream = new ProxyNetServer(routeId, initialId, sender, affinity)::onNetMessage;
+            final ProxyOptions options = binding.options;
+            final long timeout = options != null && options.headerTimeout != HEADER_TIMEOUT_DEFAULT
+                    ? options.headerTimeout
+                    : headerTimeout;
+            final ProxyCounters counters = this.counters.get(routeId);
+
+            newStream = new ProxyNetServer(routeId, initialId, sender, affinity, timeout, counters)::onNetMessage;
         }
 
         return newStream;
@@ -198,10 +266,15 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         private final long initialId;
         private final long affinity;
         private final long replyId;
+        private final long headerTimeout;
+        private final ProxyCounters counters;
+
+        private int decoder;
+        private int headerSlot = NO_SLOT;
+        private int headerOffset;
+        private int headerLimit;
 
-        private ProxyNetServerDecoder decoder;
         private int decodeSlot = NO_SLOT;
-        private int decodeOffset;
         private int decodeLimit;
         private int decodeReserved;
         private int decodeFlags;
@@ -209,11 +282,16 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         private ProxyAddrFamily decodedFamily;
         private ProxyAddrProtocol decodedTransport;
         private long decodedCrc32c = -1L;
-        private CRC32C crc32c;
+        private int decodedCrc32cAt = -1;
+        private int crc32c;
         private int decodableBytes;
         private int decodableTlvBytes;
+        private int skippableTlvBytes;
 
         private int state;
+        private long headerTimeoutId = Signaler.NO_CANCEL_ID;
+        private long headerStartAt;
+        private int failovers;
 
         private long initialSeq;
         private long initialAck;
@@ -225,19 +303,24 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         private int replyPad;
 
         private ProxyAppServer app;
+        private OctetsFW localReply;
 
         private ProxyNetServer(
             long routeId,
             long initialId,
             MessageConsumer receiver,
-            long affinity)
+            long affinity,
+            long headerTimeout,
+            ProxyCounters counters)
         {
             this.routeId = routeId;
             this.initialId = initialId;
             this.receiver = receiver;
             this.affinity = affinity;
             this.replyId = supplyReplyId.applyAsLong(initialId);
-            this.decoder = decodeHeader;
+            this.headerTimeout = headerTimeout;
+            this.counters = counters;
+            this.decoder = DECODE_HEADER;
         }
 
         private void onNetMessage(
@@ -280,6 +363,10 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                 final ChallengeFW challenge = challengeRO.wrap(buffer, index, index + length);
                 onNetChallenge(challenge);
                 break;
+            case SignalFW.TYPE_ID:
+                final SignalFW signal = signalRO.wrap(buffer, index, index + length);
+                onNetSignal(signal);
+                break;
             default:
                 break;
             }
@@ -294,21 +381,32 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             final ProxyBeginExFW beginEx = extension.get(beginExRO::tryWrap);
 
             state = ProxyState.openedInitial(state);
-            crc32c = new CRC32C();
+            headerStartAt = System.nanoTime();
+
+            final MutableDirectBuffer headerBuf = beginEx != null ? headerBuffer(beginEx.sizeof()) : null;
 
-            if (beginEx != null)
+            if (beginEx != null && headerBuf == null)
+            {
+                cleanup(traceId, authorization);
+            }
+            else
             {
-                decodeSlot = decodePool.acquire(initialId);
-                assert decodeSlot != NO_SLOT;
+                if (headerBuf != null)
+                {
+                    headerBuf.putBytes(0, beginEx.buffer(), beginEx.offset(), beginEx.sizeof());
+
+                    headerOffset = beginEx.sizeof();
+                    headerLimit = headerOffset;
+                }
 
-                final MutableDirectBuffer decodeBuf = decodePool.buffer(decodeSlot);
-                decodeBuf.putBytes(0, beginEx.buffer(), beginEx.offset(), beginEx.sizeof());
+                if (headerTimeout > 0L)
+                {
+                    headerTimeoutId = signaler.signalAt(System.currentTimeMillis() + headerTimeout,
+                            routeId, initialId, HEADER_TIMEOUT_SIGNAL);
+                }
 
-                decodeOffset = beginEx.sizeof();
-                decodeLimit = decodeOffset;
+                doNetWindow(traceId, authorization, 0L, 0, 0, 0, 0, headerWindow);
             }
-
-            doNetWindow(traceId, authorization, 0L, 0, 0, 0, 0, 16);
         }
 
         private void onNetData(
@@ -336,6 +434,15 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                     app.doAppAbort(traceId, authorization);
                 }
             }
+            else if (decodeSlot != NO_SLOT && decodeBuffer(decodeLimit + payload.sizeof()) == null)
+            {
+                cleanup(traceId, authorization);
+            }
+            else if (relayInPlace && decoder == DECODE_DATA && decodeSlot == NO_SLOT && app != null &&
+                     ProxyState.initialOpened(app.state) && data.extension().sizeof() == 0)
+            {
+                app.doAppRelay(data);
+            }
             else
             {
                 MutableDirectBuffer buffer = (MutableDirectBuffer) payload.buffer();
@@ -344,16 +451,15 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                 int reserved = data.reserved();
                 int flags = data.flags();
 
-                if (decodeLimit != decodeOffset)
+                if (decodeSlot != NO_SLOT)
                 {
-                    assert decodeSlot != NO_SLOT;
-                    final MutableDirectBuffer decodeBuffer = decodePool.buffer(decodeSlot);
+                    final MutableDirectBuffer decodeBuffer = headerArena.buffer(decodeSlot);
                     decodeBuffer.putBytes(decodeLimit, buffer, offset, limit - offset);
                     decodeLimit += limit - offset;
                     decodeFlags |= flags;
 
                     buffer = decodeBuffer;
-                    offset = decodeOffset;
+                    offset = 0;
                     limit = decodeLimit;
                     reserved = decodeReserved;
                     flags = decodeFlags;
@@ -373,11 +479,23 @@ public final class ProxyServerFactory implements ProxyStreamFactory
 
             if (app != null)
             {
-                app.doAppEnd(traceId, authorization);
+                cleanupHeaderSlot();
+
+                if (decodeSlot == NO_SLOT)
+                {
+                    app.doAppEnd(traceId, authorization);
+                }
             }
             else
             {
-                doNetEnd(traceId, authorization);
+                cleanupHeaderTimeout();
+                cleanupHeaderSlot();
+                cleanupDecodeSlot();
+
+                if (localReply == null)
+                {
+                    doNetEnd(traceId, authorization);
+                }
             }
         }
 
@@ -391,10 +509,15 @@ public final class ProxyServerFactory implements ProxyStreamFactory
 
             if (app != null)
             {
+                cleanupHeaderSlot();
+                cleanupDecodeSlot();
                 app.doAppAbort(traceId, authorization);
             }
             else
             {
+                cleanupHeaderTimeout();
+                cleanupHeaderSlot();
+                cleanupDecodeSlot();
                 doNetAbort(traceId, authorization);
             }
         }
@@ -447,6 +570,10 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                     app.doAppWindow(traceId, authorization, budgetId, minimum, capabilities, replyWin, replyPad, replyMax);
                 }
             }
+            else if (localReply != null)
+            {
+                flushNetLocal(traceId, authorization);
+            }
         }
 
         private void onNetReset(
@@ -459,11 +586,12 @@ public final class ProxyServerFactory implements ProxyStreamFactory
 
             if (app != null)
             {
+                cleanupHeaderSlot();
                 app.doAppReset(traceId, authorization);
             }
             else
             {
-                doNetReset(traceId, authorization);
+                cleanup(traceId, authorization);
             }
         }
 
@@ -480,6 +608,38 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             }
         }
 
+        private void onNetSignal(
+            SignalFW signal)
+        {
+            final long traceId = signal.traceId();
+            final long authorization = signal.authorization();
+
+            switch (signal.signalId())
+            {
+            case HEADER_TIMEOUT_SIGNAL:
+                onNetHeaderTimeout(traceId, authorization);
+                break;
+            default:
+                break;
+            }
+        }
+
+        private void onNetHeaderTimeout(
+            long traceId,
+            long authorization)
+        {
+            if (headerTimeoutId != Signaler.NO_CANCEL_ID)
+            {
+                headerTimeoutId = Signaler.NO_CANCEL_ID;
+
+                if (app == null && decoder != DECODE_IGNORE_ALL)
+                {
+                    counters.headerTimeouts.getAsLong();
+                    cleanup(traceId, authorization);
+                }
+            }
+        }
+
         private void doNetBegin(
             long traceId,
             long authorization,
@@ -506,6 +666,18 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             assert replyAck <= replySeq;
         }
 
+        private void doNetRelay(
+            DataFW data)
+        {
+            final int reserved = data.reserved();
+
+            doRelay(receiver, routeId, replyId, replySeq, replyAck, replyMax, data);
+
+            replySeq += reserved;
+
+            assert replyAck <= replySeq;
+        }
+
         private void doNetEnd(
             long traceId,
             long authorization)
@@ -588,8 +760,8 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         {
             if (decodeSlot != NO_SLOT)
             {
-                final MutableDirectBuffer buffer = decodePool.buffer(decodeSlot);
-                final int offset = decodeOffset;
+                final MutableDirectBuffer buffer = headerArena.buffer(decodeSlot);
+                final int offset = 0;
                 final int limit = decodeLimit;
                 final int reserved = decodeReserved;
                 final int flags = decodeFlags;
@@ -608,37 +780,44 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             int offset,
             int limit)
         {
-            ProxyNetServerDecoder previous = null;
             int progress = offset;
+
+            if (decoder == DECODE_HEADER)
+            {
+                progress = decodeHeaderV2(this, traceId, authorization, budgetId, buffer, offset, limit);
+            }
+
+            int previous = -1;
             while (progress <= limit && previous != decoder)
             {
                 previous = decoder;
-                progress = decoder.decode(this, traceId, authorization, flags, budgetId,
-                        reserved, buffer, offset, progress, limit);
+                progress = decode(this, traceId, authorization, flags, budgetId, reserved, buffer, offset, progress, limit);
             }
 
+            if (decoder != DECODE_DATA && decoder != DECODE_IGNORE_ALL && progress > offset)
+            {
+                crc32c = crc32c(buffer, offset, progress);
+            }
+            decodedCrc32cAt = -1;
+
             if (progress < limit)
             {
-                if (decodeSlot == NO_SLOT)
-                {
-                    decodeSlot = decodePool.acquire(initialId);
-                }
+                final MutableDirectBuffer decodeBuffer = decodeBuffer(limit - progress);
 
-                if (decodeSlot == NO_SLOT)
+                if (decodeBuffer == null)
                 {
                     cleanup(traceId, authorization);
                 }
                 else
                 {
-                    final MutableDirectBuffer decodeBuffer = decodePool.buffer(decodeSlot);
                     decodeBuffer.putBytes(0, buffer, progress, limit - progress);
-                    decodeLimit = decodeOffset + limit - progress;
+                    decodeLimit = limit - progress;
                     decodeReserved = (limit - progress) * reserved / (limit - offset);
                 }
             }
             else
             {
-                cleanupDecodeSlot(false);
+                cleanupDecodeSlot();
 
                 if (ProxyState.initialClosing(state) && app != null)
                 {
@@ -647,53 +826,231 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             }
         }
 
+        private int crc32c(
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            int crc32c = this.crc32c;
+            int progress = offset;
+
+            if (decodedCrc32cAt != -1)
+            {
+                final int decodedCrc32cAt = offset + this.decodedCrc32cAt;
+                crc32c = ProxyCrc32c.update(crc32c, buffer, progress, decodedCrc32cAt - progress);
+                crc32c = ProxyCrc32c.updateZeros(crc32c, Integer.BYTES);
+                progress = decodedCrc32cAt + Integer.BYTES;
+            }
+
+            return ProxyCrc32c.update(crc32c, buffer, progress, limit - progress);
+        }
+
         private void onNetReady(
             long traceId,
             long authorization)
         {
-            final DirectBuffer decodeBuffer = decodeSlot != NO_SLOT ? decodePool.buffer(decodeSlot) : EMPTY_BUFFER;
+            final DirectBuffer headerBuffer = headerSlot != NO_SLOT ? headerArena.buffer(headerSlot) : EMPTY_BUFFER;
 
-            final ProxyBeginExFW beginEx = beginExRO.tryWrap(decodeBuffer, 0, decodeOffset);
+            final ProxyBeginExFW beginEx = beginExRO.tryWrap(headerBuffer, 0, headerOffset);
 
-            final ProxyBinding binding = router.lookup(routeId);
+            cleanupHeaderTimeout();
+            counters.onHeader(decodedFamily, decodedTransport);
+
+            final long resolveStartAt = System.nanoTime();
+            final ProxyRateLimiter rateLimiter = rateLimiters.get(routeId);
+            final boolean limited = rateLimiter != null && !rateLimiter.tryAcquire(beginEx, resolveStartAt);
+            final ProxyBinding binding = !limited ? router.lookup(routeId) : null;
             final ProxyRoute resolved = binding != null ? binding.resolve(authorization, beginEx) : null;
-            if (resolved != null)
+
+            if (limited)
             {
-                app = new ProxyAppServer(this, resolved.id);
+                counters.routeRateLimited.getAsLong();
+                cleanup(traceId, authorization);
+            }
+            else if (resolved != null)
+            {
+                final long resolvedAt = System.nanoTime();
+                counters.resolveLatency.record(resolvedAt - resolveStartAt);
+                counters.headerLatency.record(resolvedAt - headerStartAt);
+                counters.routeHits.getAsLong();
+                app = new ProxyAppServer(this, resolved.id, resolved.index, binding.balancer);
                 app.doAppBegin(traceId, authorization, affinity, beginEx != null ? beginEx : EMPTY_OCTETS);
+
+                if (failoverRetries == 0 || !binding.balancer.pooled(resolved.index))
+                {
+                    cleanupHeaderSlot();
+                }
             }
             else
             {
+                counters.routeMisses.getAsLong();
                 cleanup(traceId, authorization);
             }
         }
 
-        private void cleanupDecodeSlot(
-            boolean force)
+        private void onNetLocal(
+            long traceId,
+            long authorization)
+        {
+            final OctetsFW localReply = localReplies.get(routeId);
+
+            if (localReply == null)
+            {
+                onNetReady(traceId, authorization);
+            }
+            else
+            {
+                cleanupHeaderTimeout();
+                cleanupHeaderSlot();
+                counters.onHeader(decodedFamily, decodedTransport);
+                counters.localReplies.getAsLong();
+
+                this.localReply = localReply;
+                this.decoder = DECODE_IGNORE_ALL;
+
+                doNetBegin(traceId, authorization, affinity);
+                flushNetLocal(traceId, authorization);
+            }
+        }
+
+        private void flushNetLocal(
+            long traceId,
+            long authorization)
+        {
+            final int length = localReply.sizeof();
+            final int replyWin = replyMax - (int)(replySeq - replyAck);
+
+            if (length == 0 || replyWin >= length + replyPad)
+            {
+                if (length != 0)
+                {
+                    doNetData(traceId, authorization, 0x03, 0L, length + replyPad, localReply);
+                }
+
+                localReply = null;
+                doNetEnd(traceId, authorization);
+                cleanupDecodeSlot();
+                doNetReset(traceId, authorization);
+            }
+        }
+
+        private void onAppAccepted()
         {
-            if (decodeSlot != NO_SLOT && (app != null || force))
+            cleanupHeaderSlot();
+        }
+
+        private void onAppRejected(
+            long traceId,
+            long authorization,
+            ProxyBalancer balancer,
+            int route)
+        {
+            final ProxyRoute failover = failovers < failoverRetries && !ProxyState.initialClosing(state)
+                    ? balancer.failover(route)
+                    : null;
+
+            if (failover != null)
+            {
+                final DirectBuffer headerBuffer = headerSlot != NO_SLOT ? headerArena.buffer(headerSlot) : EMPTY_BUFFER;
+                final ProxyBeginExFW beginEx = beginExRO.tryWrap(headerBuffer, 0, headerOffset);
+
+                failovers++;
+                counters.routeFailovers.getAsLong();
+                app = new ProxyAppServer(this, failover.id, failover.index, balancer);
+                app.doAppBegin(traceId, authorization, affinity, beginEx != null ? beginEx : EMPTY_OCTETS);
+            }
+            else
+            {
+                cleanupHeaderSlot();
+                cleanupDecodeSlot();
+                doNetReset(traceId, authorization);
+            }
+        }
+
+        private MutableDirectBuffer headerBuffer(
+            int minCapacity)
+        {
+            final int slot = headerSlot == NO_SLOT
+                    ? headerArena.acquire(initialId, minCapacity)
+                    : headerArena.grow(initialId, headerSlot, minCapacity);
+
+            if (slot != NO_SLOT)
+            {
+                headerSlot = slot;
+            }
+            else
+            {
+                counters.slotFailures.getAsLong();
+            }
+
+            return slot != NO_SLOT ? headerArena.buffer(slot) : null;
+        }
+
+        private MutableDirectBuffer decodeBuffer(
+            int minCapacity)
+        {
+            final int slot = decodeSlot == NO_SLOT
+                    ? headerArena.acquire(initialId, minCapacity)
+                    : headerArena.grow(initialId, decodeSlot, minCapacity);
+
+            if (slot != NO_SLOT)
+            {
+                decodeSlot = slot;
+            }
+            else
+            {
+                counters.slotFailures.getAsLong();
+            }
+
+            return slot != NO_SLOT ? headerArena.buffer(slot) : null;
+        }
+
+        private void cleanupHeaderSlot()
+        {
+            if (headerSlot != NO_SLOT)
+            {
+                headerArena.release(headerSlot);
+                headerSlot = NO_SLOT;
+                headerOffset = 0;
+                headerLimit = 0;
+            }
+        }
+
+        private void cleanupDecodeSlot()
+        {
+            if (decodeSlot != NO_SLOT)
             {
-                decodePool.release(decodeSlot);
+                headerArena.release(decodeSlot);
                 decodeSlot = NO_SLOT;
-                decodeOffset = 0;
                 decodeLimit = 0;
                 decodeReserved = 0;
                 decodeFlags = 0;
             }
         }
 
+        private void cleanupHeaderTimeout()
+        {
+            if (headerTimeoutId != Signaler.NO_CANCEL_ID)
+            {
+                signaler.cancel(headerTimeoutId);
+                headerTimeoutId = Signaler.NO_CANCEL_ID;
+            }
+        }
+
         private void cleanup(
             long traceId,
             long authorization)
         {
-            cleanupDecodeSlot(true);
+            cleanupHeaderTimeout();
+            cleanupHeaderSlot();
+            cleanupDecodeSlot();
             doNetReset(traceId, authorization);
             doNetAbort(traceId, authorization);
             if (app != null)
             {
                 app.cleanup(traceId, authorization);
             }
-            decoder = decodeIgnoreAll;
+            decoder = DECODE_IGNORE_ALL;
         }
     }
 
@@ -703,9 +1060,13 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         private final long routeId;
         private final long initialId;
         private final long replyId;
+        private final int route;
+        private final ProxyBalancer balancer;
         private MessageConsumer receiver;
 
         private int state;
+        private boolean routed;
+        private boolean accepted;
 
         private long initialSeq;
         private long initialAck;
@@ -718,10 +1079,14 @@ public final class ProxyServerFactory implements ProxyStreamFactory
 
         private ProxyAppServer(
             ProxyNetServer net,
-            long routeId)
+            long routeId,
+            int route,
+            ProxyBalancer balancer)
         {
             this.net = net;
             this.routeId = routeId;
+            this.route = route;
+            this.balancer = balancer;
             this.initialId = supplyInitialId.applyAsLong(routeId);
             this.replyId =  supplyReplyId.applyAsLong(initialId);
         }
@@ -779,6 +1144,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             final long affinity = begin.affinity();
 
             state = ProxyState.openedReply(state);
+            onAppAccepted();
 
             net.doNetBegin(traceId, authorization, affinity);
         }
@@ -809,7 +1175,16 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             }
             else
             {
-                net.doNetData(traceId, authorization, flags, budgetId, reserved, payload);
+                net.counters.routes.onReplyData(route, Math.max(data.length(), 0));
+
+                if (relayInPlace && data.extension().sizeof() == 0)
+                {
+                    net.doNetRelay(data);
+                }
+                else
+                {
+                    net.doNetData(traceId, authorization, flags, budgetId, reserved, payload);
+                }
             }
         }
 
@@ -820,6 +1195,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             final long authorization = end.authorization();
 
             state = ProxyState.closedReply(state);
+            cleanupRoute(false);
 
             net.doNetEnd(traceId, authorization);
         }
@@ -831,6 +1207,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             final long authorization = abort.authorization();
 
             state = ProxyState.closedReply(state);
+            cleanupRoute(false);
 
             net.doNetAbort(traceId, authorization);
         }
@@ -860,6 +1237,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             final int capabilities = window.capabilities();
 
             state = ProxyState.openedInitial(state);
+            onAppAccepted();
 
             assert acknowledge <= sequence;
             assert sequence <= initialSeq;
@@ -887,8 +1265,17 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             final long authorization = reset.authorization();
 
             state = ProxyState.closedInitial(state);
+            cleanupRoute(true);
 
-            net.doNetReset(traceId, authorization);
+            if (accepted)
+            {
+                net.doNetReset(traceId, authorization);
+            }
+            else
+            {
+                balancer.onRejected(route);
+                net.onAppRejected(traceId, authorization, balancer, route);
+            }
         }
 
         private void onAppChallenge(
@@ -910,6 +1297,10 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             receiver = newStream(this::onAppMessage, routeId, initialId, initialSeq, initialAck, initialMax,
                     traceId, authorization, affinity, extension);
             state = ProxyState.openingInitial(state);
+
+            net.counters.routes.onOpened(route);
+            balancer.onOpened(route);
+            routed = true;
         }
 
         private void doAppData(
@@ -926,6 +1317,22 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             initialSeq += reserved;
 
             assert initialAck <= initialSeq;
+
+            net.counters.routes.onInitialData(route, payload != null ? payload.sizeof() : 0);
+        }
+
+        private void doAppRelay(
+            DataFW data)
+        {
+            final int reserved = data.reserved();
+
+            doRelay(receiver, routeId, initialId, initialSeq, initialAck, initialMax, data);
+
+            initialSeq += reserved;
+
+            assert initialAck <= initialSeq;
+
+            net.counters.routes.onInitialData(route, Math.max(data.length(), 0));
         }
 
         private void doAppEnd(
@@ -936,6 +1343,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             {
                 doEnd(receiver, routeId, initialId, initialSeq, initialAck, initialMax, traceId, authorization);
                 state = ProxyState.closedInitial(state);
+                cleanupRoute(false);
             }
         }
 
@@ -947,6 +1355,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             {
                 doAbort(receiver, routeId, initialId, initialSeq, initialAck, initialMax, traceId, authorization);
                 state = ProxyState.closedInitial(state);
+                cleanupRoute(true);
             }
         }
 
@@ -967,6 +1376,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             {
                 doReset(receiver, routeId, replyId, replySeq, replyAck, replyMax, traceId, authorization);
                 state = ProxyState.closedReply(state);
+                cleanupRoute(false);
             }
         }
 
@@ -1009,6 +1419,27 @@ public final class ProxyServerFactory implements ProxyStreamFactory
             doAppReset(traceId, authorization);
             doAppAbort(traceId, authorization);
         }
+
+        private void onAppAccepted()
+        {
+            if (!accepted)
+            {
+                accepted = true;
+                balancer.onAccepted(route);
+                net.onAppAccepted();
+            }
+        }
+
+        private void cleanupRoute(
+            boolean abortive)
+        {
+            if (routed && (ProxyState.closed(state) || abortive && !ProxyState.replyOpening(state)))
+            {
+                net.counters.routes.onClosed(route);
+                balancer.onClosed(route);
+                routed = false;
+            }
+        }
     }
 
     private MessageConsumer newStream(
@@ -1101,6 +1532,29 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         receiver.accept(data.typeId(), data.buffer(), data.offset(), data.sizeof());
     }
 
+    // reaktor delivers each frame from its stream buffer and does not reuse that region until the handler
+    // returns, so the received DATA can be re-addressed and forwarded without copying the payload
+    private void doRelay(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        long sequence,
+        long acknowledge,
+        int maximum,
+        DataFW data)
+    {
+        final MutableDirectBuffer buffer = (MutableDirectBuffer) data.buffer();
+        final int offset = data.offset();
+
+        buffer.putLong(offset + DataFW.FIELD_OFFSET_ROUTE_ID, routeId);
+        buffer.putLong(offset + DataFW.FIELD_OFFSET_STREAM_ID, streamId);
+        buffer.putLong(offset + DataFW.FIELD_OFFSET_SEQUENCE, sequence);
+        buffer.putLong(offset + DataFW.FIELD_OFFSET_ACKNOWLEDGE, acknowledge);
+        buffer.putInt(offset + DataFW.FIELD_OFFSET_MAXIMUM, maximum);
+
+        receiver.accept(data.typeId(), buffer, offset, data.sizeof());
+    }
+
     private void doReset(
         MessageConsumer receiver,
         long routeId,
@@ -1253,74 +1707,758 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         receiver.accept(flush.typeId(), flush.buffer(), flush.offset(), flush.sizeof());
     }
 
-    private int decodeHeader(
+    private int decode(
         ProxyNetServer net,
         long traceId,
         long authorization,
         int flags,
         long budgetId,
         int reserved,
-        DirectBuffer buffer,
+        MutableDirectBuffer buffer,
         int offset,
         int progress,
         int limit)
     {
-        int length = limit - progress;
-
-        decode:
-        if (length >= HEADER_V2_SIZE)
-        {
-            int anchor = progress;
-            DirectBuffer header = headerRO;
-            header.wrap(buffer, progress, HEADER_V2_SIZE);
-            if (!HEADER_V2.equals(header))
-            {
-                net.cleanup(traceId, authorization);
-                break decode;
-            }
-
-            progress += HEADER_V2_SIZE;
-
-            updateCRC32C(net.crc32c, buffer, anchor, progress - anchor);
-
-            net.decoder = decodeVersion;
+        switch (net.decoder)
+        {
+        case DECODE_HEADER:
+            progress = decodeHeader(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_HEADER_V1:
+            progress = decodeHeaderV1(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_VERSION:
+            progress = decodeVersion(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_COMMAND:
+            progress = decodeCommand(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_LOCAL:
+            progress = decodeLocal(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY:
+            progress = decodeProxy(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_INET4:
+            progress = decodeProxyInet4(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_INET6:
+            progress = decodeProxyInet6(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_UNIX:
+            progress = decodeProxyUnix(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV:
+            progress = decodeProxyTlv(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_ALPN:
+            progress = decodeProxyTlvAlpn(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_AUTHORITY:
+            progress = decodeProxyTlvAuthority(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_CRC32C:
+            progress = decodeProxyTlvCrc32c(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_SKIP:
+            progress = decodeProxyTlvSkip(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_UNIQUE_ID:
+            progress = decodeProxyTlvUniqueId(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_SSL:
+            progress = decodeProxyTlvSsl(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_NETNS:
+            progress = decodeProxyTlvNetns(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_SSL_SUB_TLV:
+            progress = decodeProxyTlvSslSubTlv(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_SSL_SUB_TLV_SKIP:
+            progress = decodeProxyTlvSslSubTlvSkip(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_SSL_VERSION:
+            progress = decodeProxyTlvSslVersion(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_SSL_COMMON_NAME:
+            progress = decodeProxyTlvSslCommonName(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_SSL_CIPHER:
+            progress = decodeProxyTlvSslCipher(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_SSL_SIGNATURE:
+            progress = decodeProxyTlvSslSignature(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_PROXY_TLV_SSL_KEY:
+            progress = decodeProxyTlvSslKey(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_IGNORE:
+            progress = decodeIgnore(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_IGNORE_ALL:
+            progress = decodeIgnoreAll(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        case DECODE_DATA:
+            progress = decodeData(net, traceId, authorization, flags, budgetId, reserved,
+                    buffer, offset, progress, limit);
+            break;
+        default:
+            throw new IllegalStateException("Unexpected decoder: " + net.decoder);
         }
 
         return progress;
     }
 
-    private int decodeVersion(
+    private int decodeHeaderV2(
         ProxyNetServer net,
         long traceId,
         long authorization,
-        int flags,
         long budgetId,
-        int reserved,
         DirectBuffer buffer,
         int offset,
-        int progress,
         int limit)
     {
-        int length = limit - progress;
+        int progress = offset;
 
         decode:
-        if (length > 0)
+        if (limit - offset >= HEADER_V2_SIZE + Byte.BYTES + Byte.BYTES + Short.BYTES)
         {
-            int version = (buffer.getByte(progress) >> 4) & 0x0f;
+            final DirectBuffer header = headerRO;
+            header.wrap(buffer, offset, HEADER_V2_SIZE);
 
-            if (version != 2)
+            final int versionAt = offset + HEADER_V2_SIZE;
+            final int version = (buffer.getByte(versionAt) >> 4) & 0x0f;
+            final int command = buffer.getByte(versionAt) & 0x0f;
+            final byte protocol = buffer.getByte(versionAt + Byte.BYTES);
+            final int remaining = buffer.getShort(versionAt + Byte.BYTES + Byte.BYTES, BIG_ENDIAN) & 0xffff;
+            final int addressAt = versionAt + Byte.BYTES + Byte.BYTES + Short.BYTES;
+            final int headerLimit = addressAt + remaining;
+
+            if (!HEADER_V2.equals(header) || version != 2 || headerLimit > limit)
             {
-                net.cleanup(traceId, authorization);
                 break decode;
             }
 
-            net.decoder = decodeCommand;
-        }
-
-        return progress;
-    }
-
-    private int decodeCommand(
+            switch (command)
+            {
+            case 0:
+                if ((protocol & 0x0f) > 3)
+                {
+                    net.cleanup(traceId, authorization);
+                    break decode;
+                }
+
+                if (remaining != 0)
+                {
+                    net.doNetWindow(traceId, authorization, budgetId, 0, 0, 0, 0, remaining);
+                }
+
+                progress = headerLimit;
+                net.decoder = DECODE_DATA;
+                net.onNetLocal(traceId, authorization);
+                break;
+            case 1:
+                progress = decodeProxyV2(net, traceId, authorization, budgetId, buffer, offset, protocol, addressAt, headerLimit);
+                break;
+            default:
+                net.cleanup(traceId, authorization);
+                break;
+            }
+        }
+
+        return progress;
+    }
+
+    private int decodeProxyV2(
+        ProxyNetServer net,
+        long traceId,
+        long authorization,
+        long budgetId,
+        DirectBuffer buffer,
+        int offset,
+        byte protocol,
+        int progress,
+        int limit)
+    {
+        final int family = (protocol >> 4) & 0x0f;
+        final int transport = protocol & 0x0f;
+        final int remaining = limit - progress;
+
+        decode:
+        if (family == 0 || family > 3 || transport == 0 || transport > 2)
+        {
+            net.cleanup(traceId, authorization);
+        }
+        else
+        {
+            net.doNetWindow(traceId, authorization, budgetId, 0, 0, 0, 0, remaining);
+
+            net.decodedFamily = ProxyAddrFamily.valueOf(family);
+            net.decodedTransport = ProxyAddrProtocol.valueOf(transport);
+
+            final MutableDirectBuffer decodeBuf = net.headerBuffer(net.headerOffset + Integer.BYTES +
+                    remaining + HEADER_ENCODE_PADDING + Integer.BYTES + Integer.BYTES);
+            if (decodeBuf == null)
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
+
+            decodeBuf.putInt(net.headerOffset, router.typeId());
+            net.headerOffset += Integer.BYTES;
+
+            ProxyAddressFW address = null;
+            switch (net.decodedFamily)
+            {
+            case INET4:
+                final ProxyAddrInet4FW addressInet4 = addressInet4RO.tryWrap(buffer, progress, limit);
+                if (addressInet4 != null)
+                {
+                    address = encodeAddressInet4(net, decodeBuf, net.headerOffset, addressInet4);
+                    progress = addressInet4.limit();
+                }
+                break;
+            case INET6:
+                final ProxyAddrInet6FW addressInet6 = addressInet6RO.tryWrap(buffer, progress, limit);
+                if (addressInet6 != null)
+                {
+                    address = encodeAddressInet6(net, decodeBuf, net.headerOffset, addressInet6);
+                    progress = addressInet6.limit();
+                }
+                break;
+            case UNIX:
+                final ProxyAddrUnixFW addressUnix = addressUnixRO.tryWrap(buffer, progress, limit);
+                if (addressUnix != null)
+                {
+                    address = encodeAddressUnix(net, decodeBuf, net.headerOffset, addressUnix);
+                    progress = addressUnix.limit();
+                }
+                break;
+            }
+
+            if (address == null)
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
+
+            net.headerOffset += address.sizeof();
+            decodeBuf.putInt(net.headerOffset, Integer.BYTES);
+            net.headerOffset += Integer.BYTES;
+            decodeBuf.putInt(net.headerOffset, 0);
+            net.headerOffset += Integer.BYTES;
+            net.headerLimit = net.headerOffset;
+
+            while (progress < limit)
+            {
+                final ProxyTlvFW tlv = tlvRO.tryWrap(buffer, progress, limit);
+                if (tlv == null)
+                {
+                    net.cleanup(traceId, authorization);
+                    break decode;
+                }
+
+                final int tlvLimit = tlv.limit();
+
+                net.counters.onTlv(tlv.type());
+
+                switch (tlv.type())
+                {
+                case 0x01:
+                case 0x02:
+                case 0x05:
+                case 0x30:
+                    if (!encodeProxyInfo(net, tlv, false))
+                    {
+                        net.cleanup(traceId, authorization);
+                        break decode;
+                    }
+                    break;
+                case 0x03:
+                    if (!decodeProxyCrc32c(net, tlv, offset))
+                    {
+                        net.cleanup(traceId, authorization);
+                        break decode;
+                    }
+                    break;
+                case 0x20:
+                    final ProxyTlvSslFW ssl = tlv.value().get(tlvSslRO::tryWrap);
+                    if (ssl == null)
+                    {
+                        net.cleanup(traceId, authorization);
+                        break decode;
+                    }
+
+                    for (int subTlvAt = ssl.limit(); subTlvAt < tlvLimit; )
+                    {
+                        final ProxyTlvFW subTlv = tlvRO.tryWrap(buffer, subTlvAt, tlvLimit);
+                        if (subTlv == null)
+                        {
+                            net.cleanup(traceId, authorization);
+                            break decode;
+                        }
+
+                        switch (subTlv.type())
+                        {
+                        case 0x21:
+                        case 0x22:
+                        case 0x23:
+                        case 0x24:
+                        case 0x25:
+                            if (!encodeProxyInfo(net, subTlv, true))
+                            {
+                                net.cleanup(traceId, authorization);
+                                break decode;
+                            }
+                            break;
+                        default:
+                            break;
+                        }
+
+                        subTlvAt = subTlv.limit();
+                    }
+                    break;
+                default:
+                    break;
+                }
+
+                progress = tlvLimit;
+            }
+
+            net.decodableBytes = 0;
+            decodeProxyDone(net, traceId, authorization, buffer, offset, progress);
+        }
+
+        return progress;
+    }
+
+    private int decodeHeader(
+        ProxyNetServer net,
+        long traceId,
+        long authorization,
+        int flags,
+        long budgetId,
+        int reserved,
+        DirectBuffer buffer,
+        int offset,
+        int progress,
+        int limit)
+    {
+        int length = limit - progress;
+
+        decode:
+        if (length > 0 && buffer.getByte(progress) == HEADER_V1.getByte(0))
+        {
+            net.doNetWindow(traceId, authorization, budgetId, 0, 0, 0, 0, HEADER_V1_MAX_SIZE);
+
+            net.decoder = DECODE_HEADER_V1;
+        }
+        else if (length >= HEADER_V2_SIZE)
+        {
+            DirectBuffer header = headerRO;
+            header.wrap(buffer, progress, HEADER_V2_SIZE);
+            if (!HEADER_V2.equals(header))
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
+
+            progress += HEADER_V2_SIZE;
+
+            net.decoder = DECODE_VERSION;
+        }
+
+        return progress;
+    }
+
+    private int decodeHeaderV1(
+        ProxyNetServer net,
+        long traceId,
+        long authorization,
+        int flags,
+        long budgetId,
+        int reserved,
+        DirectBuffer buffer,
+        int offset,
+        int progress,
+        int limit)
+    {
+        final int scanLimit = Math.min(limit, progress + HEADER_V1_MAX_SIZE);
+
+        int crlfAt = -1;
+        for (int index = progress; index + 1 < scanLimit && crlfAt == -1; index++)
+        {
+            if (buffer.getByte(index) == '\r' && buffer.getByte(index + 1) == '\n')
+            {
+                crlfAt = index;
+            }
+        }
+
+        decode:
+        if (crlfAt == -1)
+        {
+            if (scanLimit - progress == HEADER_V1_MAX_SIZE)
+            {
+                net.cleanup(traceId, authorization);
+            }
+        }
+        else if (!matchesV1(buffer, progress, crlfAt, HEADER_V1))
+        {
+            net.cleanup(traceId, authorization);
+        }
+        else
+        {
+            final int familyAt = progress + HEADER_V1_SIZE;
+            final int lineLimit = crlfAt + 2;
+
+            if (matchesV1(buffer, familyAt, crlfAt, HEADER_V1_UNKNOWN) &&
+                (familyAt + HEADER_V1_UNKNOWN.capacity() == crlfAt ||
+                 buffer.getByte(familyAt + HEADER_V1_UNKNOWN.capacity()) == ' '))
+            {
+                progress = lineLimit;
+                net.decoder = DECODE_DATA;
+                net.onNetReady(traceId, authorization);
+                break decode;
+            }
+
+            final MutableDirectBuffer address = addressV1RW;
+
+            int index;
+            ProxyAddrFamily family;
+            if (matchesV1(buffer, familyAt, crlfAt, HEADER_V1_TCP4))
+            {
+                index = familyAt + HEADER_V1_TCP4.capacity();
+                index = decodeInet4V1(buffer, index, crlfAt, address, 0);
+                index = decodeSpaceV1(buffer, index, crlfAt);
+                index = decodeInet4V1(buffer, index, crlfAt, address, 4);
+                index = decodeSpaceV1(buffer, index, crlfAt);
+                index = decodePortV1(buffer, index, crlfAt, address, 8);
+                index = decodeSpaceV1(buffer, index, crlfAt);
+                index = decodePortV1(buffer, index, crlfAt, address, 10);
+                family = ProxyAddrFamily.INET4;
+            }
+            else if (matchesV1(buffer, familyAt, crlfAt, HEADER_V1_TCP6))
+            {
+                index = familyAt + HEADER_V1_TCP6.capacity();
+                index = decodeInet6V1(buffer, index, crlfAt, address, 0);
+                index = decodeSpaceV1(buffer, index, crlfAt);
+                index = decodeInet6V1(buffer, index, crlfAt, address, 16);
+                index = decodeSpaceV1(buffer, index, crlfAt);
+                index = decodePortV1(buffer, index, crlfAt, address, 32);
+                index = decodeSpaceV1(buffer, index, crlfAt);
+                index = decodePortV1(buffer, index, crlfAt, address, 34);
+                family = ProxyAddrFamily.INET6;
+            }
+            else
+            {
+                index = -1;
+                family = null;
+            }
+
+            if (index != crlfAt)
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
+
+            net.decodedFamily = family;
+            net.decodedTransport = ProxyAddrProtocol.STREAM;
+
+            final MutableDirectBuffer decodeBuf = net.headerBuffer(net.headerOffset + HEADER_V1_BEGIN_EX_MAX_SIZE);
+            if (decodeBuf == null)
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
+
+            decodeBuf.putInt(net.headerOffset, router.typeId());
+
+            final int addressAt = net.headerOffset + Integer.BYTES;
+            final ProxyAddressFW encoded = family == ProxyAddrFamily.INET4
+                    ? encodeAddressInet4(net, decodeBuf, addressAt, addressInet4RO.wrap(address, 0, PROXY_ADDRESS_LENGTH_INET4))
+                    : encodeAddressInet6(net, decodeBuf, addressAt, addressInet6RO.wrap(address, 0, PROXY_ADDRESS_LENGTH_INET6));
+
+            final int infosAt = encoded.limit();
+            decodeBuf.putInt(infosAt, Integer.BYTES);
+            decodeBuf.putInt(infosAt + Integer.BYTES, 0);
+
+            net.headerOffset = infosAt + Integer.BYTES + Integer.BYTES;
+            net.headerLimit = net.headerOffset;
+
+            progress = lineLimit;
+            net.decoder = DECODE_DATA;
+            net.onNetReady(traceId, authorization);
+        }
+
+        return progress;
+    }
+
+    private static boolean matchesV1(
+        DirectBuffer buffer,
+        int index,
+        int limit,
+        DirectBuffer token)
+    {
+        final int length = token.capacity();
+
+        boolean matches = limit - index >= length;
+        for (int i = 0; matches && i < length; i++)
+        {
+            matches = buffer.getByte(index + i) == token.getByte(i);
+        }
+
+        return matches;
+    }
+
+    private static int decodeSpaceV1(
+        DirectBuffer buffer,
+        int index,
+        int limit)
+    {
+        return index != -1 && index < limit && buffer.getByte(index) == ' ' ? index + 1 : -1;
+    }
+
+    private static int decodePortV1(
+        DirectBuffer buffer,
+        int index,
+        int limit,
+        MutableDirectBuffer address,
+        int addressAt)
+    {
+        int port = 0;
+        int digits = 0;
+        while (index != -1 && index < limit && digits < 5 && isDigit(buffer.getByte(index)))
+        {
+            port = port * 10 + buffer.getByte(index) - '0';
+            digits++;
+            index++;
+        }
+
+        if (digits != 0 && port <= 0xffff)
+        {
+            address.putShort(addressAt, (short) port, BIG_ENDIAN);
+        }
+        else
+        {
+            index = -1;
+        }
+
+        return index;
+    }
+
+    private static int decodeInet4V1(
+        DirectBuffer buffer,
+        int index,
+        int limit,
+        MutableDirectBuffer address,
+        int addressAt)
+    {
+        for (int octet = 0; index != -1 && octet < 4; octet++)
+        {
+            if (octet != 0)
+            {
+                index = index < limit && buffer.getByte(index) == '.' ? index + 1 : -1;
+            }
+
+            int value = 0;
+            int digits = 0;
+            while (index != -1 && index < limit && digits < 3 && isDigit(buffer.getByte(index)))
+            {
+                value = value * 10 + buffer.getByte(index) - '0';
+                digits++;
+                index++;
+            }
+
+            if (digits != 0 && value <= 0xff)
+            {
+                address.putByte(addressAt + octet, (byte) value);
+            }
+            else
+            {
+                index = -1;
+            }
+        }
+
+        return index;
+    }
+
+    private static int decodeInet6V1(
+        DirectBuffer buffer,
+        int index,
+        int limit,
+        MutableDirectBuffer address,
+        int addressAt)
+    {
+        int groups = 0;
+        int compressAt = -1;
+
+        if (index != -1 && index + 1 < limit && buffer.getByte(index) == ':' && buffer.getByte(index + 1) == ':')
+        {
+            compressAt = 0;
+            index += 2;
+        }
+
+        decode:
+        while (index != -1 && groups < 8 && index < limit && buffer.getByte(index) != ' ')
+        {
+            final int groupAt = index;
+
+            int value = 0;
+            int digits = 0;
+            int digit;
+            while (index < limit && digits < 4 && (digit = hexDigit(buffer.getByte(index))) != -1)
+            {
+                value = (value << 4) | digit;
+                digits++;
+                index++;
+            }
+
+            if (digits == 0)
+            {
+                index = -1;
+                break decode;
+            }
+
+            if (index < limit && buffer.getByte(index) == '.')
+            {
+                index = groups <= 6 ? decodeInet4V1(buffer, groupAt, limit, address, addressAt + (groups << 1)) : -1;
+                groups += 2;
+                break decode;
+            }
+
+            address.putShort(addressAt + (groups << 1), (short) value, BIG_ENDIAN);
+            groups++;
+
+            if (index < limit && buffer.getByte(index) == ':')
+            {
+                index++;
+                if (index < limit && buffer.getByte(index) == ':')
+                {
+                    if (compressAt != -1)
+                    {
+                        index = -1;
+                        break decode;
+                    }
+                    compressAt = groups;
+                    index++;
+                }
+                else if (index == limit || buffer.getByte(index) == ' ')
+                {
+                    index = -1;
+                }
+            }
+            else
+            {
+                break decode;
+            }
+        }
+
+        if (index != -1)
+        {
+            if (compressAt != -1 && groups < 8)
+            {
+                final int shift = 8 - groups;
+                for (int group = groups - 1; group >= compressAt; group--)
+                {
+                    final short value = address.getShort(addressAt + (group << 1));
+                    address.putShort(addressAt + ((group + shift) << 1), value);
+                }
+                address.setMemory(addressAt + (compressAt << 1), shift << 1, (byte) 0);
+            }
+            else if (compressAt != -1 || groups != 8)
+            {
+                index = -1;
+            }
+        }
+
+        return index;
+    }
+
+    private static boolean isDigit(
+        byte value)
+    {
+        return value >= '0' && value <= '9';
+    }
+
+    private static int hexDigit(
+        byte value)
+    {
+        int digit = -1;
+        if (value >= '0' && value <= '9')
+        {
+            digit = value - '0';
+        }
+        else if (value >= 'a' && value <= 'f')
+        {
+            digit = value - 'a' + 10;
+        }
+        else if (value >= 'A' && value <= 'F')
+        {
+            digit = value - 'A' + 10;
+        }
+        return digit;
+    }
+
+    private int decodeVersion(
+        ProxyNetServer net,
+        long traceId,
+        long authorization,
+        int flags,
+        long budgetId,
+        int reserved,
+        DirectBuffer buffer,
+        int offset,
+        int progress,
+        int limit)
+    {
+        int length = limit - progress;
+
+        decode:
+        if (length > 0)
+        {
+            int version = (buffer.getByte(progress) >> 4) & 0x0f;
+
+            if (version != 2)
+            {
+                net.counters.versionRejects.getAsLong();
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
+
+            net.decoder = DECODE_COMMAND;
+        }
+
+        return progress;
+    }
+
+    private int decodeCommand(
         ProxyNetServer net,
         long traceId,
         long authorization,
@@ -1337,20 +2475,17 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         decode:
         if (length > 0)
         {
-            int anchor = progress;
             int command = buffer.getByte(progress) & 0x0f;
 
             progress++;
 
-            updateCRC32C(net.crc32c, buffer, anchor, progress - anchor);
-
             switch (command)
             {
             case 0:
-                net.decoder = decodeLocal;
+                net.decoder = DECODE_LOCAL;
                 break;
             case 1:
-                net.decoder = decodeProxy;
+                net.decoder = DECODE_PROXY;
                 break;
             default:
                 net.cleanup(traceId, authorization);
@@ -1378,7 +2513,6 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         decode:
         if (length >= Byte.BYTES + Short.BYTES)
         {
-            int anchor = progress;
             int transport = buffer.getByte(progress) & 0x0f;
 
             if (transport > 3)
@@ -1392,19 +2526,17 @@ public final class ProxyServerFactory implements ProxyStreamFactory
 
             progress += Short.BYTES;
 
-            updateCRC32C(net.crc32c, buffer, anchor, progress - anchor);
-
             if (remaining == 0)
             {
-                net.onNetReady(traceId, authorization);
-                net.decoder = decodeData;
+                net.decoder = DECODE_DATA;
+                net.onNetLocal(traceId, authorization);
             }
             else
             {
                 net.doNetWindow(traceId, authorization, budgetId, 0, 0, 0, 0, remaining);
 
                 net.decodableBytes = remaining;
-                net.decoder = decodeIgnore;
+                net.decoder = DECODE_IGNORE;
             }
         }
 
@@ -1434,8 +2566,8 @@ public final class ProxyServerFactory implements ProxyStreamFactory
 
             if (net.decodableBytes == 0)
             {
-                net.onNetReady(traceId, authorization);
-                net.decoder = decodeData;
+                net.decoder = DECODE_DATA;
+                net.onNetLocal(traceId, authorization);
             }
         }
 
@@ -1475,7 +2607,6 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         decode:
         if (length >= Byte.BYTES + Short.BYTES)
         {
-            int anchor = progress;
             byte protocol = buffer.getByte(progress);
             int family = (protocol >> 4) & 0x0f;
             int transport = protocol & 0x0f;
@@ -1497,8 +2628,6 @@ public final class ProxyServerFactory implements ProxyStreamFactory
 
             progress += Short.BYTES;
 
-            updateCRC32C(net.crc32c, buffer, anchor, progress - anchor);
-
             switch (net.decodedFamily)
             {
             case INET4:
@@ -1507,7 +2636,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                     net.cleanup(traceId, authorization);
                     break decode;
                 }
-                net.decoder = decodeProxyInet4;
+                net.decoder = DECODE_PROXY_INET4;
                 break;
             case INET6:
                 if (remaining < PROXY_ADDRESS_LENGTH_INET6)
@@ -1515,7 +2644,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                     net.cleanup(traceId, authorization);
                     break decode;
                 }
-                net.decoder = decodeProxyInet6;
+                net.decoder = DECODE_PROXY_INET6;
                 break;
             case UNIX:
                 if (remaining < PROXY_ADDRESS_LENGTH_UNIX)
@@ -1523,7 +2652,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                     net.cleanup(traceId, authorization);
                     break decode;
                 }
-                net.decoder = decodeProxyUnix;
+                net.decoder = DECODE_PROXY_UNIX;
                 break;
             }
         }
@@ -1556,45 +2685,30 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                 break decode;
             }
 
-            final OctetsFW source = addressInet4.source();
-            final OctetsFW destination = addressInet4.destination();
-            final int sourcePort = addressInet4.sourcePort();
-            final int destinationPort = addressInet4.destinationPort();
-
-            if (net.decodeSlot == NO_SLOT)
+            final MutableDirectBuffer decodeBuf = net.headerBuffer(net.headerOffset + Integer.BYTES +
+                    addressInet4.sizeof() + HEADER_ENCODE_PADDING + Integer.BYTES + Integer.BYTES);
+            if (decodeBuf == null)
             {
-                net.decodeSlot = decodePool.acquire(net.initialId);
+                net.cleanup(traceId, authorization);
+                break decode;
             }
-            assert net.decodeSlot != NO_SLOT;
 
-            final MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            decodeBuf.putInt(net.decodeOffset, router.typeId());
-            net.decodeOffset += Integer.BYTES;
-            net.decodeLimit = net.decodeOffset;
+            decodeBuf.putInt(net.headerOffset, router.typeId());
+            net.headerOffset += Integer.BYTES;
 
-            ProxyAddressFW address = addressRW
-                    .wrap(decodeBuf, net.decodeOffset, decodeBuf.capacity())
-                    .inet4(i -> i.protocol(t -> t.set(ProxyAddressProtocol.valueOf(net.decodedTransport.ordinal())))
-                                 .source(source)
-                                 .destination(destination)
-                                 .sourcePort(sourcePort)
-                                 .destinationPort(destinationPort))
-                    .build();
+            ProxyAddressFW address = encodeAddressInet4(net, decodeBuf, net.headerOffset, addressInet4);
 
             net.decodableBytes -= addressInet4.sizeof();
-            net.decodeOffset += address.sizeof();
-            net.decodeLimit = net.decodeOffset;
+            net.headerOffset += address.sizeof();
             progress = addressInet4.limit();
 
-            decodeBuf.putInt(net.decodeOffset, Integer.BYTES);
-            net.decodeOffset += Integer.BYTES;
-            decodeBuf.putInt(net.decodeOffset, 0);
-            net.decodeOffset += Integer.BYTES;
-            net.decodeLimit = net.decodeOffset;
+            decodeBuf.putInt(net.headerOffset, Integer.BYTES);
+            net.headerOffset += Integer.BYTES;
+            decodeBuf.putInt(net.headerOffset, 0);
+            net.headerOffset += Integer.BYTES;
+            net.headerLimit = net.headerOffset;
 
-            updateCRC32C(net.crc32c, addressInet4.buffer(), addressInet4.offset(), addressInet4.sizeof());
-
-            net.decoder = decodeProxyTlv;
+            net.decoder = DECODE_PROXY_TLV;
         }
 
         return progress;
@@ -1625,45 +2739,30 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                 break decode;
             }
 
-            final OctetsFW source = addressInet6.source();
-            final OctetsFW destination = addressInet6.destination();
-            final int sourcePort = addressInet6.sourcePort();
-            final int destinationPort = addressInet6.destinationPort();
-
-            if (net.decodeSlot == NO_SLOT)
+            final MutableDirectBuffer decodeBuf = net.headerBuffer(net.headerOffset + Integer.BYTES +
+                    addressInet6.sizeof() + HEADER_ENCODE_PADDING + Integer.BYTES + Integer.BYTES);
+            if (decodeBuf == null)
             {
-                net.decodeSlot = decodePool.acquire(net.initialId);
+                net.cleanup(traceId, authorization);
+                break decode;
             }
-            assert net.decodeSlot != NO_SLOT;
 
-            final MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            decodeBuf.putInt(net.decodeOffset, router.typeId());
-            net.decodeOffset += Integer.BYTES;
-            net.decodeLimit = net.decodeOffset;
+            decodeBuf.putInt(net.headerOffset, router.typeId());
+            net.headerOffset += Integer.BYTES;
 
-            ProxyAddressFW address = addressRW
-                    .wrap(decodeBuf, net.decodeOffset, decodeBuf.capacity())
-                    .inet6(i -> i.protocol(t -> t.set(ProxyAddressProtocol.valueOf(net.decodedTransport.ordinal())))
-                                 .source(source)
-                                 .destination(destination)
-                                 .sourcePort(sourcePort)
-                                 .destinationPort(destinationPort))
-                    .build();
+            ProxyAddressFW address = encodeAddressInet6(net, decodeBuf, net.headerOffset, addressInet6);
 
             net.decodableBytes -= addressInet6.sizeof();
-            net.decodeOffset += address.sizeof();
-            net.decodeLimit = net.decodeOffset;
+            net.headerOffset += address.sizeof();
             progress = addressInet6.limit();
 
-            decodeBuf.putInt(net.decodeOffset, Integer.BYTES);
-            net.decodeOffset += Integer.BYTES;
-            decodeBuf.putInt(net.decodeOffset, 0);
-            net.decodeOffset += Integer.BYTES;
-            net.decodeLimit = net.decodeOffset;
+            decodeBuf.putInt(net.headerOffset, Integer.BYTES);
+            net.headerOffset += Integer.BYTES;
+            decodeBuf.putInt(net.headerOffset, 0);
+            net.headerOffset += Integer.BYTES;
+            net.headerLimit = net.headerOffset;
 
-            updateCRC32C(net.crc32c, addressInet6.buffer(), addressInet6.offset(), addressInet6.sizeof());
-
-            net.decoder = decodeProxyTlv;
+            net.decoder = DECODE_PROXY_TLV;
         }
 
         return progress;
@@ -1694,41 +2793,30 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                 break decode;
             }
 
-            OctetsFW source = addressUnix.source();
-            OctetsFW destination = addressUnix.destination();
-
-            if (net.decodeSlot == NO_SLOT)
+            final MutableDirectBuffer decodeBuf = net.headerBuffer(net.headerOffset + Integer.BYTES +
+                    addressUnix.sizeof() + HEADER_ENCODE_PADDING + Integer.BYTES + Integer.BYTES);
+            if (decodeBuf == null)
             {
-                net.decodeSlot = decodePool.acquire(net.initialId);
+                net.cleanup(traceId, authorization);
+                break decode;
             }
-            assert net.decodeSlot != NO_SLOT;
 
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            decodeBuf.putInt(net.decodeOffset, router.typeId());
-            net.decodeOffset += Integer.BYTES;
-            net.decodeLimit = net.decodeOffset;
+            decodeBuf.putInt(net.headerOffset, router.typeId());
+            net.headerOffset += Integer.BYTES;
 
-            ProxyAddressFW address = addressRW
-                    .wrap(decodeBuf, net.decodeOffset, decodeBuf.capacity())
-                    .unix(i -> i.protocol(t -> t.set(ProxyAddressProtocol.valueOf(net.decodedTransport.ordinal())))
-                                .source(source)
-                                .destination(destination))
-                    .build();
+            ProxyAddressFW address = encodeAddressUnix(net, decodeBuf, net.headerOffset, addressUnix);
 
             net.decodableBytes -= addressUnix.sizeof();
-            net.decodeOffset += address.sizeof();
-            net.decodeLimit = net.decodeOffset;
+            net.headerOffset += address.sizeof();
             progress = addressUnix.limit();
 
-            decodeBuf.putInt(net.decodeOffset, Integer.BYTES);
-            net.decodeOffset += Integer.BYTES;
-            decodeBuf.putInt(net.decodeOffset, 0);
-            net.decodeOffset += Integer.BYTES;
-            net.decodeLimit = net.decodeOffset;
+            decodeBuf.putInt(net.headerOffset, Integer.BYTES);
+            net.headerOffset += Integer.BYTES;
+            decodeBuf.putInt(net.headerOffset, 0);
+            net.headerOffset += Integer.BYTES;
+            net.headerLimit = net.headerOffset;
 
-            updateCRC32C(net.crc32c, addressUnix.buffer(), addressUnix.offset(), addressUnix.sizeof());
-
-            net.decoder = decodeProxyTlv;
+            net.decoder = DECODE_PROXY_TLV;
         }
 
         return progress;
@@ -1751,55 +2839,57 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         decode:
         if (net.decodableBytes == 0)
         {
-            if (net.decodedCrc32c != -1L && net.decodedCrc32c != net.crc32c.getValue())
-            {
-                net.cleanup(traceId, authorization);
-                break decode;
-            }
-
-            net.crc32c = null;
-
-            assert net.decodeSlot != NO_SLOT;
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            int size = decodeBuf.getInt(net.decodeOffset - Integer.BYTES - Integer.BYTES);
-            net.decodeOffset += size - Integer.BYTES;
-            net.decodeLimit = net.decodeOffset;
-            net.onNetReady(traceId, authorization);
-            net.decoder = decodeData;
+            decodeProxyDone(net, traceId, authorization, buffer, offset, progress);
         }
-        else if (length > 0)
+        else if (length >= ProxyTlvFW.FIELD_OFFSET_VALUE)
         {
-            ProxyTlvFW tlv = tlvRO.tryWrap(buffer, progress, limit);
+            final int type = buffer.getByte(progress + ProxyTlvFW.FIELD_OFFSET_TYPE) & 0xff;
 
-            if (tlv != null)
+            int decoder;
+            switch (type)
             {
-                switch (tlv.type())
+            case 0x01:
+                decoder = DECODE_PROXY_TLV_ALPN;
+                break;
+            case 0x02:
+                decoder = DECODE_PROXY_TLV_AUTHORITY;
+                break;
+            case 0x03:
+                decoder = DECODE_PROXY_TLV_CRC32C;
+                break;
+            case 0x05:
+                decoder = DECODE_PROXY_TLV_UNIQUE_ID;
+                break;
+            case 0x20:
+                decoder = DECODE_PROXY_TLV_SSL;
+                break;
+            case 0x30:
+                decoder = DECODE_PROXY_TLV_NETNS;
+                break;
+            default:
+                decoder = DECODE_PROXY_TLV_SKIP;
+                break;
+            }
+
+            if (decoder == DECODE_PROXY_TLV_SKIP)
+            {
+                final int size = ProxyTlvFW.FIELD_OFFSET_VALUE +
+                        (buffer.getShort(progress + ProxyTlvFW.FIELD_OFFSET_LENGTH, BIG_ENDIAN) & 0xffff);
+
+                if (size > net.decodableBytes)
                 {
-                case 0x01:
-                    net.decoder = decodeProxyTlvAlpn;
-                    break;
-                case 0x02:
-                    net.decoder = decodeProxyTlvAuthority;
-                    break;
-                case 0x03:
-                    net.decoder = decodeProxyTlvCrc32c;
-                    break;
-                case 0x04:
-                    net.decoder = decodeProxyTlvIgnore;
-                    break;
-                case 0x05:
-                    net.decoder = decodeProxyTlvUniqueId;
-                    break;
-                case 0x20:
-                    net.decoder = decodeProxyTlvSsl;
-                    break;
-                case 0x30:
-                    net.decoder = decodeProxyTlvNetns;
-                    break;
-                default:
-                    net.decoder = decodeProxyTlvIgnore;
-                    break;
+                    net.cleanup(traceId, authorization);
+                    break decode;
                 }
+
+                net.counters.onTlv(type);
+                net.skippableTlvBytes = size;
+                net.decoder = decoder;
+            }
+            else if (tlvRO.tryWrap(buffer, progress, limit) != null)
+            {
+                net.counters.onTlv(type);
+                net.decoder = decoder;
             }
         }
 
@@ -1820,32 +2910,20 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
+        decode:
         if (length > 0)
         {
-            assert net.decodeSlot != NO_SLOT;
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            int size = decodeBuf.getInt(net.decodeOffset - Integer.BYTES - Integer.BYTES);
-            int items = decodeBuf.getInt(net.decodeOffset - Integer.BYTES);
-
             ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
-            OctetsFW tlvBounded = tlvBoundedRO.wrap(tlv.buffer(), tlv.offset() + ProxyTlvFW.FIELD_OFFSET_LENGTH, tlv.limit());
-            String16FW alpn = tlvBounded.get(tlvStringRO::wrap);
-            ProxyInfoFW info = infoRW.wrap(decodeBuf, net.decodeOffset + size - Integer.BYTES, decodePool.slotCapacity())
-                    .alpn(alpn)
-                    .build();
-
-            size += info.sizeof();
-            items++;
-
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES - Integer.BYTES, size);
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES, items);
-
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
+            if (!encodeProxyInfo(net, tlv, false))
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
 
             net.decodableBytes -= tlv.sizeof();
             progress += tlv.sizeof();
 
-            net.decoder = decodeProxyTlv;
+            net.decoder = DECODE_PROXY_TLV;
         }
 
         return progress;
@@ -1865,32 +2943,20 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
+        decode:
         if (length > 0)
         {
-            assert net.decodeSlot != NO_SLOT;
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            int size = decodeBuf.getInt(net.decodeOffset - Integer.BYTES - Integer.BYTES);
-            int items = decodeBuf.getInt(net.decodeOffset - Integer.BYTES);
-
             ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
-            OctetsFW tlvBounded = tlvBoundedRO.wrap(tlv.buffer(), tlv.offset() + ProxyTlvFW.FIELD_OFFSET_LENGTH, tlv.limit());
-            String16FW authority = tlvBounded.get(tlvStringRO::wrap);
-            ProxyInfoFW info = infoRW.wrap(decodeBuf, net.decodeOffset + size - Integer.BYTES, decodePool.slotCapacity())
-                    .authority(authority)
-                    .build();
-
-            size += info.sizeof();
-            items++;
-
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES - Integer.BYTES, size);
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES, items);
-
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
+            if (!encodeProxyInfo(net, tlv, false))
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
 
             net.decodableBytes -= tlv.sizeof();
             progress += tlv.sizeof();
 
-            net.decoder = decodeProxyTlv;
+            net.decoder = DECODE_PROXY_TLV;
         }
 
         return progress;
@@ -1903,7 +2969,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         int flags,
         long budgetId,
         int reserved,
-        MutableDirectBuffer buffer,
+        DirectBuffer buffer,
         int offset,
         int progress,
         int limit)
@@ -1914,27 +2980,22 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         if (length > 0)
         {
             ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
-            if (tlv.length() != Integer.BYTES)
+            if (!decodeProxyCrc32c(net, tlv, offset))
             {
                 net.cleanup(traceId, authorization);
                 break decode;
             }
 
-            net.decodedCrc32c = tlv.value().value().getInt(0, BIG_ENDIAN) & 0xffff_ffffL;
-
-            buffer.putInt(tlv.offset() + ProxyTlvFW.FIELD_OFFSET_VALUE, 0);
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
-
             net.decodableBytes -= tlv.sizeof();
             progress += tlv.sizeof();
 
-            net.decoder = decodeProxyTlv;
+            net.decoder = DECODE_PROXY_TLV;
         }
 
         return progress;
     }
 
-    private int decodeProxyTlvIgnore(
+    private int decodeProxyTlvSkip(
         ProxyNetServer net,
         long traceId,
         long authorization,
@@ -1948,16 +3009,18 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
-        if (length > 0)
+        if (length > 0 || net.skippableTlvBytes == 0)
         {
-            ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
+            final int skipped = Math.min(length, net.skippableTlvBytes);
 
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
+            net.skippableTlvBytes -= skipped;
+            net.decodableBytes -= skipped;
+            progress += skipped;
 
-            net.decodableBytes -= tlv.sizeof();
-            progress += tlv.sizeof();
-
-            net.decoder = decodeProxyTlv;
+            if (net.skippableTlvBytes == 0)
+            {
+                net.decoder = DECODE_PROXY_TLV;
+            }
         }
 
         return progress;
@@ -1977,31 +3040,20 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
+        decode:
         if (length > 0)
         {
-            assert net.decodeSlot != NO_SLOT;
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            int size = decodeBuf.getInt(net.decodeOffset - Integer.BYTES - Integer.BYTES);
-            int items = decodeBuf.getInt(net.decodeOffset - Integer.BYTES);
-
             ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
-            OctetsFW uniqueId = tlv.value();
-            ProxyInfoFW info = infoRW.wrap(decodeBuf, net.decodeOffset + size - Integer.BYTES, decodePool.slotCapacity())
-                    .identity(i -> i.value(uniqueId))
-                    .build();
-
-            size += info.sizeof();
-            items++;
-
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES - Integer.BYTES, size);
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES, items);
-
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
+            if (!encodeProxyInfo(net, tlv, false))
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
 
             net.decodableBytes -= tlv.sizeof();
             progress += tlv.sizeof();
 
-            net.decoder = decodeProxyTlv;
+            net.decoder = DECODE_PROXY_TLV;
         }
 
         return progress;
@@ -2032,13 +3084,11 @@ public final class ProxyServerFactory implements ProxyStreamFactory
                 break decode;
             }
 
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), ssl.limit() - tlv.offset());
-
             net.decodableBytes -= ssl.limit() - tlv.offset();
             net.decodableTlvBytes = tlv.length() - ssl.sizeof();
             progress += ssl.limit() - tlv.offset();
 
-            net.decoder = decodeProxyTlvSslSubTlv;
+            net.decoder = DECODE_PROXY_TLV_SSL_SUB_TLV;
         }
 
         return progress;
@@ -2061,37 +3111,53 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         decode:
         if (net.decodableTlvBytes == 0)
         {
-            net.decoder = decodeProxyTlv;
+            net.decoder = DECODE_PROXY_TLV;
         }
-        else if (length > 0)
+        else if (length >= ProxyTlvFW.FIELD_OFFSET_VALUE)
         {
-            ProxyTlvFW tlv = tlvRO.tryWrap(buffer, progress, limit);
-            if (tlv == null)
-            {
-                break decode;
-            }
+            final int type = buffer.getByte(progress + ProxyTlvFW.FIELD_OFFSET_TYPE) & 0xff;
 
-            switch (tlv.type())
+            int decoder;
+            switch (type)
             {
             case 0x21:
-                net.decoder = decodeProxyTlvSslVersion;
+                decoder = DECODE_PROXY_TLV_SSL_VERSION;
                 break;
             case 0x22:
-                net.decoder = decodeProxyTlvSslCommonName;
+                decoder = DECODE_PROXY_TLV_SSL_COMMON_NAME;
                 break;
             case 0x23:
-                net.decoder = decodeProxyTlvSslCipher;
+                decoder = DECODE_PROXY_TLV_SSL_CIPHER;
                 break;
             case 0x24:
-                net.decoder = decodeProxyTlvSslSignature;
+                decoder = DECODE_PROXY_TLV_SSL_SIGNATURE;
                 break;
             case 0x25:
-                net.decoder = decodeProxyTlvSslKey;
+                decoder = DECODE_PROXY_TLV_SSL_KEY;
                 break;
             default:
-                net.decoder = decodeProxyTlvSslSubTlvIgnore;
+                decoder = DECODE_PROXY_TLV_SSL_SUB_TLV_SKIP;
                 break;
             }
+
+            if (decoder == DECODE_PROXY_TLV_SSL_SUB_TLV_SKIP)
+            {
+                final int size = ProxyTlvFW.FIELD_OFFSET_VALUE +
+                        (buffer.getShort(progress + ProxyTlvFW.FIELD_OFFSET_LENGTH, BIG_ENDIAN) & 0xffff);
+
+                if (size > net.decodableTlvBytes)
+                {
+                    net.cleanup(traceId, authorization);
+                    break decode;
+                }
+
+                net.skippableTlvBytes = size;
+                net.decoder = decoder;
+            }
+            else if (tlvRO.tryWrap(buffer, progress, limit) != null)
+            {
+                net.decoder = decoder;
+            }
         }
 
         return progress;
@@ -2111,33 +3177,21 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
+        decode:
         if (length > 0)
         {
-            assert net.decodeSlot != NO_SLOT;
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            int size = decodeBuf.getInt(net.decodeOffset - Integer.BYTES - Integer.BYTES);
-            int items = decodeBuf.getInt(net.decodeOffset - Integer.BYTES);
-
             ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
-            OctetsFW tlvBounded = tlvBoundedRO.wrap(tlv.buffer(), tlv.offset() + ProxyTlvFW.FIELD_OFFSET_LENGTH, tlv.limit());
-            String16FW version = tlvBounded.get(tlvStringRO::wrap);
-            ProxyInfoFW info = infoRW.wrap(decodeBuf, net.decodeOffset + size - Integer.BYTES, decodePool.slotCapacity())
-                    .secure(s -> s.protocol(version))
-                    .build();
-
-            size += info.sizeof();
-            items++;
-
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES - Integer.BYTES, size);
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES, items);
-
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
+            if (!encodeProxyInfo(net, tlv, true))
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
 
             net.decodableTlvBytes -= tlv.sizeof();
             net.decodableBytes -= tlv.sizeof();
             progress += tlv.sizeof();
 
-            net.decoder = decodeProxyTlvSslSubTlv;
+            net.decoder = DECODE_PROXY_TLV_SSL_SUB_TLV;
         }
 
         return progress;
@@ -2157,33 +3211,21 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
+        decode:
         if (length > 0)
         {
-            assert net.decodeSlot != NO_SLOT;
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            int size = decodeBuf.getInt(net.decodeOffset - Integer.BYTES - Integer.BYTES);
-            int items = decodeBuf.getInt(net.decodeOffset - Integer.BYTES);
-
             ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
-            OctetsFW tlvBounded = tlvBoundedRO.wrap(tlv.buffer(), tlv.offset() + ProxyTlvFW.FIELD_OFFSET_LENGTH, tlv.limit());
-            String16FW commonName = tlvBounded.get(tlvStringRO::wrap);
-            ProxyInfoFW info = infoRW.wrap(decodeBuf, net.decodeOffset + size - Integer.BYTES, decodePool.slotCapacity())
-                    .secure(s -> s.name(commonName))
-                    .build();
-
-            size += info.sizeof();
-            items++;
-
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES - Integer.BYTES, size);
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES, items);
-
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
+            if (!encodeProxyInfo(net, tlv, true))
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
 
             net.decodableTlvBytes -= tlv.sizeof();
             net.decodableBytes -= tlv.sizeof();
             progress += tlv.sizeof();
 
-            net.decoder = decodeProxyTlvSslSubTlv;
+            net.decoder = DECODE_PROXY_TLV_SSL_SUB_TLV;
         }
 
         return progress;
@@ -2203,33 +3245,21 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
+        decode:
         if (length > 0)
         {
-            assert net.decodeSlot != NO_SLOT;
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            int size = decodeBuf.getInt(net.decodeOffset - Integer.BYTES - Integer.BYTES);
-            int items = decodeBuf.getInt(net.decodeOffset - Integer.BYTES);
-
             ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
-            OctetsFW tlvBounded = tlvBoundedRO.wrap(tlv.buffer(), tlv.offset() + ProxyTlvFW.FIELD_OFFSET_LENGTH, tlv.limit());
-            String16FW cipher = tlvBounded.get(tlvStringRO::wrap);
-            ProxyInfoFW info = infoRW.wrap(decodeBuf, net.decodeOffset + size - Integer.BYTES, decodePool.slotCapacity())
-                    .secure(s -> s.cipher(cipher))
-                    .build();
-
-            size += info.sizeof();
-            items++;
-
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES - Integer.BYTES, size);
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES, items);
-
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
+            if (!encodeProxyInfo(net, tlv, true))
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
 
             net.decodableTlvBytes -= tlv.sizeof();
             net.decodableBytes -= tlv.sizeof();
             progress += tlv.sizeof();
 
-            net.decoder = decodeProxyTlvSslSubTlv;
+            net.decoder = DECODE_PROXY_TLV_SSL_SUB_TLV;
         }
 
         return progress;
@@ -2249,33 +3279,21 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
+        decode:
         if (length > 0)
         {
-            assert net.decodeSlot != NO_SLOT;
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            int size = decodeBuf.getInt(net.decodeOffset - Integer.BYTES - Integer.BYTES);
-            int items = decodeBuf.getInt(net.decodeOffset - Integer.BYTES);
-
             ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
-            OctetsFW tlvBounded = tlvBoundedRO.wrap(tlv.buffer(), tlv.offset() + ProxyTlvFW.FIELD_OFFSET_LENGTH, tlv.limit());
-            String16FW signature = tlvBounded.get(tlvStringRO::wrap);
-            ProxyInfoFW info = infoRW.wrap(decodeBuf, net.decodeOffset + size - Integer.BYTES, decodePool.slotCapacity())
-                    .secure(s -> s.signature(signature))
-                    .build();
-
-            size += info.sizeof();
-            items++;
-
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES - Integer.BYTES, size);
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES, items);
-
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
+            if (!encodeProxyInfo(net, tlv, true))
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
 
             net.decodableTlvBytes -= tlv.sizeof();
             net.decodableBytes -= tlv.sizeof();
             progress += tlv.sizeof();
 
-            net.decoder = decodeProxyTlvSslSubTlv;
+            net.decoder = DECODE_PROXY_TLV_SSL_SUB_TLV;
         }
 
         return progress;
@@ -2295,39 +3313,27 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
+        decode:
         if (length > 0)
         {
-            assert net.decodeSlot != NO_SLOT;
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            int size = decodeBuf.getInt(net.decodeOffset - Integer.BYTES - Integer.BYTES);
-            int items = decodeBuf.getInt(net.decodeOffset - Integer.BYTES);
-
             ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
-            OctetsFW tlvBounded = tlvBoundedRO.wrap(tlv.buffer(), tlv.offset() + ProxyTlvFW.FIELD_OFFSET_LENGTH, tlv.limit());
-            String16FW key = tlvBounded.get(tlvStringRO::wrap);
-            ProxyInfoFW info = infoRW.wrap(decodeBuf, net.decodeOffset + size - Integer.BYTES, decodePool.slotCapacity())
-                    .secure(s -> s.key(key))
-                    .build();
-
-            size += info.sizeof();
-            items++;
-
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES - Integer.BYTES, size);
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES, items);
-
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
+            if (!encodeProxyInfo(net, tlv, true))
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
 
             net.decodableTlvBytes -= tlv.sizeof();
             net.decodableBytes -= tlv.sizeof();
             progress += tlv.sizeof();
 
-            net.decoder = decodeProxyTlvSslSubTlv;
+            net.decoder = DECODE_PROXY_TLV_SSL_SUB_TLV;
         }
 
         return progress;
     }
 
-    private int decodeProxyTlvSslSubTlvIgnore(
+    private int decodeProxyTlvSslSubTlvSkip(
         ProxyNetServer net,
         long traceId,
         long authorization,
@@ -2341,17 +3347,19 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
-        if (length > 0)
+        if (length > 0 || net.skippableTlvBytes == 0)
         {
-            ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
+            final int skipped = Math.min(length, net.skippableTlvBytes);
 
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
-
-            net.decodableTlvBytes -= tlv.sizeof();
-            net.decodableBytes -= tlv.sizeof();
-            progress += tlv.sizeof();
+            net.skippableTlvBytes -= skipped;
+            net.decodableTlvBytes -= skipped;
+            net.decodableBytes -= skipped;
+            progress += skipped;
 
-            net.decoder = decodeProxyTlvSslSubTlv;
+            if (net.skippableTlvBytes == 0)
+            {
+                net.decoder = DECODE_PROXY_TLV_SSL_SUB_TLV;
+            }
         }
 
         return progress;
@@ -2371,32 +3379,20 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
+        decode:
         if (length > 0)
         {
-            assert net.decodeSlot != NO_SLOT;
-            MutableDirectBuffer decodeBuf = decodePool.buffer(net.decodeSlot);
-            int size = decodeBuf.getInt(net.decodeOffset - Integer.BYTES - Integer.BYTES);
-            int items = decodeBuf.getInt(net.decodeOffset - Integer.BYTES);
-
             ProxyTlvFW tlv = tlvRO.wrap(buffer, progress, limit);
-            OctetsFW tlvBounded = tlvBoundedRO.wrap(tlv.buffer(), tlv.offset() + ProxyTlvFW.FIELD_OFFSET_LENGTH, tlv.limit());
-            String16FW namespace = tlvBounded.get(tlvStringRO::wrap);
-            ProxyInfoFW info = infoRW.wrap(decodeBuf, net.decodeOffset + size - Integer.BYTES, decodePool.slotCapacity())
-                    .namespace(namespace)
-                    .build();
-
-            size += info.sizeof();
-            items++;
-
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES - Integer.BYTES, size);
-            decodeBuf.putInt(net.decodeOffset - Integer.BYTES, items);
-
-            updateCRC32C(net.crc32c, tlv.buffer(), tlv.offset(), tlv.sizeof());
+            if (!encodeProxyInfo(net, tlv, false))
+            {
+                net.cleanup(traceId, authorization);
+                break decode;
+            }
 
             net.decodableBytes -= tlv.sizeof();
             progress += tlv.sizeof();
 
-            net.decoder = decodeProxyTlv;
+            net.decoder = DECODE_PROXY_TLV;
         }
 
         return progress;
@@ -2416,7 +3412,7 @@ public final class ProxyServerFactory implements ProxyStreamFactory
     {
         int length = limit - progress;
 
-        if (length > 0)
+        if (length > 0 && ProxyState.initialOpened(net.app.state))
         {
             OctetsFW payload = payloadRO.wrap(buffer, progress, limit);
             net.app.doAppData(traceId, authorization, budgetId, flags, reserved, payload);
@@ -2426,33 +3422,195 @@ public final class ProxyServerFactory implements ProxyStreamFactory
         return progress;
     }
 
-    private static void updateCRC32C(
-        CRC32C crc32c,
+    private void decodeProxyDone(
+        ProxyNetServer net,
+        long traceId,
+        long authorization,
         DirectBuffer buffer,
+        int offset,
+        int progress)
+    {
+        if (net.decodedCrc32c != -1L && net.decodedCrc32c != (net.crc32c(buffer, offset, progress) & 0xffff_ffffL))
+        {
+            net.counters.crc32cFailures.getAsLong();
+            net.cleanup(traceId, authorization);
+        }
+        else
+        {
+            assert net.headerSlot != NO_SLOT;
+            MutableDirectBuffer decodeBuf = headerArena.buffer(net.headerSlot);
+            int size = decodeBuf.getInt(net.headerOffset - Integer.BYTES - Integer.BYTES);
+            net.headerOffset += size - Integer.BYTES;
+            net.headerLimit = net.headerOffset;
+            net.decoder = DECODE_DATA;
+            net.onNetReady(traceId, authorization);
+        }
+    }
+
+    private boolean decodeProxyCrc32c(
+        ProxyNetServer net,
+        ProxyTlvFW tlv,
+        int offset)
+    {
+        final boolean valid = tlv.length() == Integer.BYTES;
+
+        if (valid)
+        {
+            net.decodedCrc32c = tlv.value().value().getInt(0, BIG_ENDIAN) & 0xffff_ffffL;
+            net.decodedCrc32cAt = tlv.offset() + ProxyTlvFW.FIELD_OFFSET_VALUE - offset;
+        }
+
+        return valid;
+    }
+
+    private boolean encodeProxyInfo(
+        ProxyNetServer net,
+        ProxyTlvFW tlv,
+        boolean secure)
+    {
+        final MutableDirectBuffer decodeBuf = net.headerBuffer(net.headerLimit + tlv.sizeof() + HEADER_ENCODE_PADDING);
+
+        if (decodeBuf != null)
+        {
+            int size = decodeBuf.getInt(net.headerOffset - Integer.BYTES - Integer.BYTES);
+            int items = decodeBuf.getInt(net.headerOffset - Integer.BYTES);
+
+            final int infoAt = net.headerOffset + size - Integer.BYTES;
+            final ProxyInfoFW info = secure ? encodeSecureInfo(decodeBuf, infoAt, tlv) : encodeInfo(decodeBuf, infoAt, tlv);
+
+            size += info.sizeof();
+            items++;
+
+            decodeBuf.putInt(net.headerOffset - Integer.BYTES - Integer.BYTES, size);
+            decodeBuf.putInt(net.headerOffset - Integer.BYTES, items);
+            net.headerLimit = info.limit();
+        }
+
+        return decodeBuf != null;
+    }
+
+    private ProxyAddressFW encodeAddressInet4(
+        ProxyNetServer net,
+        MutableDirectBuffer buffer,
         int index,
-        int length)
+        ProxyAddrInet4FW addressInet4)
     {
-        ByteBuffer buf = buffer.byteBuffer();
-        int position = buf.position();
-        int limit = buf.limit();
-        buf.clear().position(index).limit(index + length);
-        crc32c.update(buf);
-        buf.clear().position(position).limit(limit);
+        final OctetsFW source = addressInet4.source();
+        final OctetsFW destination = addressInet4.destination();
+        final int sourcePort = addressInet4.sourcePort();
+        final int destinationPort = addressInet4.destinationPort();
+
+        return addressRW
+                .wrap(buffer, index, buffer.capacity())
+                .inet4(i -> i.protocol(t -> t.set(ProxyAddressProtocol.valueOf(net.decodedTransport.ordinal())))
+                             .source(source)
+                             .destination(destination)
+                             .sourcePort(sourcePort)
+                             .destinationPort(destinationPort))
+                .build();
     }
 
-    @FunctionalInterface
-    private interface ProxyNetServerDecoder
+    private ProxyAddressFW encodeAddressInet6(
+        ProxyNetServer net,
+        MutableDirectBuffer buffer,
+        int index,
+        ProxyAddrInet6FW addressInet6)
     {
-        int decode(
-            ProxyNetServer net,
-            long traceId,
-            long authorization,
-            int flags,
-            long budgetId,
-            int reserved,
-            MutableDirectBuffer buffer,
-            int offset,
-            int progress,
-            int limit);
+        final OctetsFW source = addressInet6.source();
+        final OctetsFW destination = addressInet6.destination();
+        final int sourcePort = addressInet6.sourcePort();
+        final int destinationPort = addressInet6.destinationPort();
+
+        return addressRW
+                .wrap(buffer, index, buffer.capacity())
+                .inet6(i -> i.protocol(t -> t.set(ProxyAddressProtocol.valueOf(net.decodedTransport.ordinal())))
+                             .source(source)
+                             .destination(destination)
+                             .sourcePort(sourcePort)
+                             .destinationPort(destinationPort))
+                .build();
+    }
+
+    private ProxyAddressFW encodeAddressUnix(
+        ProxyNetServer net,
+        MutableDirectBuffer buffer,
+        int index,
+        ProxyAddrUnixFW addressUnix)
+    {
+        final OctetsFW source = addressUnix.source();
+        final OctetsFW destination = addressUnix.destination();
+
+        return addressRW
+                .wrap(buffer, index, buffer.capacity())
+                .unix(i -> i.protocol(t -> t.set(ProxyAddressProtocol.valueOf(net.decodedTransport.ordinal())))
+                            .source(source)
+                            .destination(destination))
+                .build();
+    }
+
+    private ProxyInfoFW encodeInfo(
+        MutableDirectBuffer buffer,
+        int index,
+        ProxyTlvFW tlv)
+    {
+        final ProxyInfoFW.Builder info = infoRW.wrap(buffer, index, buffer.capacity());
+        final OctetsFW tlvBounded = tlvBoundedRO.wrap(tlv.buffer(), tlv.offset() + ProxyTlvFW.FIELD_OFFSET_LENGTH, tlv.limit());
+
+        switch (tlv.type())
+        {
+        case 0x01:
+            final String16FW alpn = tlvBounded.get(tlvStringRO::wrap);
+            info.alpn(alpn);
+            break;
+        case 0x02:
+            final String16FW authority = tlvBounded.get(tlvStringRO::wrap);
+            info.authority(authority);
+            break;
+        case 0x05:
+            final OctetsFW uniqueId = tlv.value();
+            info.identity(i -> i.value(uniqueId));
+            break;
+        case 0x30:
+            final String16FW namespace = tlvBounded.get(tlvStringRO::wrap);
+            info.namespace(namespace);
+            break;
+        default:
+            throw new IllegalArgumentException("Unexpected TLV type: " + tlv.type());
+        }
+
+        return info.build();
+    }
+
+    private ProxyInfoFW encodeSecureInfo(
+        MutableDirectBuffer buffer,
+        int index,
+        ProxyTlvFW tlv)
+    {
+        final ProxyInfoFW.Builder info = infoRW.wrap(buffer, index, buffer.capacity());
+        final OctetsFW tlvBounded = tlvBoundedRO.wrap(tlv.buffer(), tlv.offset() + ProxyTlvFW.FIELD_OFFSET_LENGTH, tlv.limit());
+        final String16FW value = tlvBounded.get(tlvStringRO::wrap);
+
+        switch (tlv.type())
+        {
+        case 0x21:
+            info.secure(s -> s.protocol(value));
+            break;
+        case 0x22:
+            info.secure(s -> s.name(value));
+            break;
+        case 0x23:
+            info.secure(s -> s.cipher(value));
+            break;
+        case 0x24:
+            info.secure(s -> s.signature(value));
+            break;
+        case 0x25:
+            info.secure(s -> s.key(value));
+            break;
+        default:
+            throw new IllegalArgumentException("Unexpected SSL TLV type: " + tlv.type());
+        }
+
+        return info.build();
     }
 }
@@ -0,0 +1,567 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.bench;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.reaktivity.nukleus.proxy.internal.ProxyConfiguration.PROXY_HEADER_ARENA_CELL_CAPACITY;
+
+import java.net.InetAddress;
+import java.util.Properties;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32C;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.reaktivity.nukleus.proxy.internal.ProxyConfiguration;
+import org.reaktivity.nukleus.proxy.internal.stream.ProxyServerFactory;
+import org.reaktivity.nukleus.proxy.internal.types.stream.BeginFW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.DataFW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.EndFW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.WindowFW;
+import org.reaktivity.reaktor.config.Binding;
+import org.reaktivity.reaktor.config.Role;
+import org.reaktivity.reaktor.config.Route;
+import org.reaktivity.reaktor.nukleus.Configuration;
+import org.reaktivity.reaktor.nukleus.ElektronContext;
+import org.reaktivity.reaktor.nukleus.buffer.BufferPool;
+import org.reaktivity.reaktor.nukleus.concurrent.Signaler;
+import org.reaktivity.reaktor.nukleus.function.MessageConsumer;
+import org.reaktivity.reaktor.nukleus.stream.StreamFactory;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(3)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@OutputTimeUnit(SECONDS)
+public class ProxyServerBM
+{
+    private static final DirectBuffer HEADER_V2 = new UnsafeBuffer("\r\n\r\n\0\r\nQUIT\n".getBytes(US_ASCII));
+
+    private static final long ROUTE_ID = 0x0001_0001_0000_0001L;
+    private static final long EXIT_ID = 0x0001_0002_0000_0002L;
+    private static final long INITIAL_ID = 0x0000_0000_0000_0001L;
+    private static final int FRAGMENT_SIZE = 7;
+    private static final int EXPERIMENTAL_TLV_SIZE = 4096;
+    private static final int SLOT_CAPACITY = 8192;
+
+    @Param({
+        "local",
+        "inet4",
+        "inet4.tlvs",
+        "inet4.tlvs.crc32c",
+        "inet4.tlvs.large",
+        "inet6",
+        "inet6.tlvs",
+        "unix",
+        "unix.tlvs" })
+    public String header;
+
+    @Param({
+        "whole",
+        "fragmented" })
+    public String delivery;
+
+    private final BeginFW.Builder beginRW = new BeginFW.Builder();
+    private final DataFW.Builder dataRW = new DataFW.Builder();
+    private final EndFW.Builder endRW = new EndFW.Builder();
+    private final WindowFW windowRO = new WindowFW();
+
+    private final MutableDirectBuffer frameBuffer = new UnsafeBuffer(new byte[8192]);
+    private final MutableDirectBuffer headerBuffer = new UnsafeBuffer(new byte[8192]);
+
+    private ProxyServerFactory factory;
+    private int headerLength;
+    private int fragmentSize;
+
+    private long initialAck;
+    private int initialMax;
+
+    @Setup
+    public void init()
+    {
+        final Route exit = new Route(0, "app#0");
+        exit.id = EXIT_ID;
+
+        final Binding binding = new Binding(null, "net#0", "proxy", Role.SERVER, null, emptyList(), exit);
+        binding.id = ROUTE_ID;
+
+        final Properties properties = new Properties();
+        properties.setProperty(PROXY_HEADER_ARENA_CELL_CAPACITY.name(), Integer.toString(SLOT_CAPACITY));
+
+        final ProxyConfiguration config = new ProxyConfiguration(new Configuration(properties));
+
+        factory = new ProxyServerFactory(config, new BenchContext());
+        factory.attach(binding);
+
+        headerLength = encodeHeader(headerBuffer, header);
+        fragmentSize = "fragmented".equals(delivery) ? FRAGMENT_SIZE : headerLength;
+    }
+
+    @Benchmark
+    public void decode()
+    {
+        initialAck = 0L;
+        initialMax = 0;
+
+        final BeginFW begin = beginRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .routeId(ROUTE_ID)
+                .streamId(INITIAL_ID)
+                .sequence(0L)
+                .acknowledge(0L)
+                .maximum(0)
+                .traceId(0L)
+                .authorization(0L)
+                .affinity(0L)
+                .build();
+
+        final MessageConsumer net =
+                factory.newStream(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof(), this::onNetMessage);
+        net.accept(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
+
+        long sequence = 0L;
+        for (int progress = 0; progress < headerLength; )
+        {
+            final int credit = initialMax - (int)(sequence - initialAck);
+            final int length = Math.min(fragmentSize, headerLength - progress);
+            assert length > 0 && length <= credit;
+
+            final DataFW data = dataRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                    .routeId(ROUTE_ID)
+                    .streamId(INITIAL_ID)
+                    .sequence(sequence)
+                    .acknowledge(initialAck)
+                    .maximum(initialMax)
+                    .traceId(0L)
+                    .authorization(0L)
+                    .flags(0x03)
+                    .budgetId(0L)
+                    .reserved(length)
+                    .payload(headerBuffer, progress, length)
+                    .build();
+
+            net.accept(data.typeId(), data.buffer(), data.offset(), data.sizeof());
+
+            sequence += length;
+            progress += length;
+        }
+
+        final EndFW end = endRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .routeId(ROUTE_ID)
+                .streamId(INITIAL_ID)
+                .sequence(sequence)
+                .acknowledge(initialAck)
+                .maximum(initialMax)
+                .traceId(0L)
+                .authorization(0L)
+                .build();
+
+        net.accept(end.typeId(), end.buffer(), end.offset(), end.sizeof());
+    }
+
+    private void onNetMessage(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        if (msgTypeId == WindowFW.TYPE_ID)
+        {
+            final WindowFW window = windowRO.wrap(buffer, index, index + length);
+            initialAck = window.acknowledge();
+            initialMax = window.maximum();
+        }
+    }
+
+    private static int encodeHeader(
+        MutableDirectBuffer buffer,
+        String header)
+    {
+        final boolean tlvs = header.contains(".tlvs");
+        final boolean crc32c = header.endsWith(".crc32c");
+        final boolean large = header.endsWith(".large");
+
+        int progress = 0;
+        buffer.putBytes(progress, HEADER_V2, 0, HEADER_V2.capacity());
+        progress += HEADER_V2.capacity();
+
+        if (header.startsWith("local"))
+        {
+            buffer.putByte(progress++, (byte) 0x20);
+            buffer.putByte(progress++, (byte) 0x00);
+            buffer.putShort(progress, (short) 0, BIG_ENDIAN);
+            progress += Short.BYTES;
+        }
+        else
+        {
+            buffer.putByte(progress++, (byte) 0x21);
+
+            final int lengthAt = progress + Byte.BYTES;
+            if (header.startsWith("inet4"))
+            {
+                buffer.putByte(progress++, (byte) 0x11);
+                progress += Short.BYTES;
+                progress = encodeAddress(buffer, progress, 4);
+            }
+            else if (header.startsWith("inet6"))
+            {
+                buffer.putByte(progress++, (byte) 0x21);
+                progress += Short.BYTES;
+                progress = encodeAddress(buffer, progress, 16);
+            }
+            else
+            {
+                buffer.putByte(progress++, (byte) 0x31);
+                progress += Short.BYTES;
+                buffer.setMemory(progress, 216, (byte) 0);
+                buffer.putBytes(progress, "/tmp/source.sock".getBytes(US_ASCII));
+                buffer.putBytes(progress + 108, "/tmp/destination.sock".getBytes(US_ASCII));
+                progress += 216;
+            }
+
+            if (tlvs)
+            {
+                progress = encodeTlv(buffer, progress, 0x01, "h2");
+                progress = encodeTlv(buffer, progress, 0x02, "example.com");
+
+                final int sslAt = progress;
+                buffer.putByte(progress++, (byte) 0x20);
+                progress += Short.BYTES;
+                buffer.putByte(progress++, (byte) 0x07);
+                buffer.putInt(progress, 0, BIG_ENDIAN);
+                progress += Integer.BYTES;
+                progress = encodeTlv(buffer, progress, 0x21, "TLSv1.3");
+                progress = encodeTlv(buffer, progress, 0x22, "client.example.com");
+                progress = encodeTlv(buffer, progress, 0x23, "TLS_AES_128_GCM_SHA256");
+                buffer.putShort(sslAt + Byte.BYTES, (short) (progress - sslAt - Byte.BYTES - Short.BYTES), BIG_ENDIAN);
+            }
+
+            if (large)
+            {
+                buffer.putByte(progress++, (byte) 0xe0);
+                buffer.putShort(progress, (short) EXPERIMENTAL_TLV_SIZE, BIG_ENDIAN);
+                progress += Short.BYTES;
+                buffer.setMemory(progress, EXPERIMENTAL_TLV_SIZE, (byte) 0x5a);
+                progress += EXPERIMENTAL_TLV_SIZE;
+            }
+
+            int crc32cAt = -1;
+            if (crc32c)
+            {
+                buffer.putByte(progress++, (byte) 0x03);
+                buffer.putShort(progress, (short) Integer.BYTES, BIG_ENDIAN);
+                progress += Short.BYTES;
+                crc32cAt = progress;
+                buffer.putInt(progress, 0, BIG_ENDIAN);
+                progress += Integer.BYTES;
+            }
+
+            buffer.putShort(lengthAt, (short) (progress - lengthAt - Short.BYTES), BIG_ENDIAN);
+
+            if (crc32cAt != -1)
+            {
+                final CRC32C checksum = new CRC32C();
+                checksum.update(buffer.byteArray(), 0, progress);
+                buffer.putInt(crc32cAt, (int) checksum.getValue(), BIG_ENDIAN);
+            }
+        }
+
+        return progress;
+    }
+
+    private static int encodeAddress(
+        MutableDirectBuffer buffer,
+        int progress,
+        int size)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            buffer.putByte(progress + i, (byte) (i == 0 ? 192 : i == size - 1 ? 1 : 168));
+            buffer.putByte(progress + size + i, (byte) (i == 0 ? 192 : i == size - 1 ? 2 : 168));
+        }
+        progress += size << 1;
+
+        buffer.putShort(progress, (short) 32768, BIG_ENDIAN);
+        progress += Short.BYTES;
+        buffer.putShort(progress, (short) 443, BIG_ENDIAN);
+        progress += Short.BYTES;
+
+        return progress;
+    }
+
+    private static int encodeTlv(
+        MutableDirectBuffer buffer,
+        int progress,
+        int type,
+        String value)
+    {
+        final byte[] bytes = value.getBytes(US_ASCII);
+
+        buffer.putByte(progress++, (byte) type);
+        buffer.putShort(progress, (short) bytes.length, BIG_ENDIAN);
+        progress += Short.BYTES;
+        buffer.putBytes(progress, bytes);
+        progress += bytes.length;
+
+        return progress;
+    }
+
+    private static final class BenchBufferPool implements BufferPool
+    {
+        private final MutableDirectBuffer[] slots;
+        private final boolean[] acquired;
+
+        private BenchBufferPool(
+            int slotCount)
+        {
+            this.slots = new MutableDirectBuffer[slotCount];
+            this.acquired = new boolean[slotCount];
+            for (int slot = 0; slot < slotCount; slot++)
+            {
+                slots[slot] = new UnsafeBuffer(new byte[SLOT_CAPACITY]);
+            }
+        }
+
+        @Override
+        public int slotCapacity()
+        {
+            return SLOT_CAPACITY;
+        }
+
+        @Override
+        public int acquire(
+            long streamId)
+        {
+            int slot = 0;
+            while (slot < slots.length && acquired[slot])
+            {
+                slot++;
+            }
+
+            if (slot < slots.length)
+            {
+                acquired[slot] = true;
+            }
+
+            return slot < slots.length ? slot : NO_SLOT;
+        }
+
+        @Override
+        public MutableDirectBuffer buffer(
+            int slot)
+        {
+            return slots[slot];
+        }
+
+        @Override
+        public void release(
+            int slot)
+        {
+            acquired[slot] = false;
+        }
+
+        @Override
+        public int acquiredSlots()
+        {
+            int count = 0;
+            for (boolean slot : acquired)
+            {
+                count += slot ? 1 : 0;
+            }
+            return count;
+        }
+
+        @Override
+        public BufferPool duplicate()
+        {
+            return this;
+        }
+    }
+
+    private static final class BenchSignaler implements Signaler
+    {
+        @Override
+        public long signalAt(
+            long timeMillis,
+            int signalId,
+            IntConsumer handler)
+        {
+            return NO_CANCEL_ID;
+        }
+
+        @Override
+        public void signalNow(
+            long routeId,
+            long streamId,
+            int signalId)
+        {
+        }
+
+        @Override
+        public long signalAt(
+            long timeMillis,
+            long routeId,
+            long streamId,
+            int signalId)
+        {
+            return NO_CANCEL_ID;
+        }
+
+        @Override
+        public long signalTask(
+            Runnable task,
+            long routeId,
+            long streamId,
+            int signalId)
+        {
+            return NO_CANCEL_ID;
+        }
+
+        @Override
+        public boolean cancel(
+            long cancelId)
+        {
+            return true;
+        }
+    }
+
+    private static final class BenchContext implements ElektronContext
+    {
+        private final MutableDirectBuffer writeBuffer = new UnsafeBuffer(new byte[SLOT_CAPACITY]);
+        private final BufferPool bufferPool = new BenchBufferPool(1);
+        private final Signaler signaler = new BenchSignaler();
+        private final StreamFactory streamFactory = (t, b, i, l, s) -> (mt, mb, mi, ml) -> {};
+
+        @Override
+        public int index()
+        {
+            return 0;
+        }
+
+        @Override
+        public Signaler signaler()
+        {
+            return signaler;
+        }
+
+        @Override
+        public int supplyTypeId(
+            String name)
+        {
+            return 1;
+        }
+
+        @Override
+        public long supplyInitialId(
+            long routeId)
+        {
+            return INITIAL_ID + 2L;
+        }
+
+        @Override
+        public long supplyReplyId(
+            long initialId)
+        {
+            return initialId + 1L;
+        }
+
+        @Override
+        public long supplyBudgetId()
+        {
+            return 0L;
+        }
+
+        @Override
+        public long supplyTraceId()
+        {
+            return 0L;
+        }
+
+        @Override
+        public MutableDirectBuffer writeBuffer()
+        {
+            return writeBuffer;
+        }
+
+        @Override
+        public BufferPool bufferPool()
+        {
+            return bufferPool;
+        }
+
+        @Override
+        public LongSupplier supplyCounter(
+            long bindingId,
+            String name)
+        {
+            return () -> 0L;
+        }
+
+        @Override
+        public LongConsumer supplyAccumulator(
+            long bindingId,
+            String name)
+        {
+            return value -> {};
+        }
+
+        @Override
+        public StreamFactory streamFactory()
+        {
+            return streamFactory;
+        }
+
+        @Override
+        public InetAddress[] resolveHost(
+            String host)
+        {
+            return new InetAddress[0];
+        }
+    }
+
+    public static void main(
+        String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+                .include(ProxyServerBM.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.config;
+
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressProtocol.STREAM;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
+
+public class ProxyBalancerTest
+{
+    private MutableDirectBuffer buffer;
+
+    @Before
+    public void initBuffer()
+    {
+        buffer = new UnsafeBuffer(new byte[1024]);
+    }
+
+    @Test
+    public void shouldSelectResolvedRouteWithoutBalance()
+    {
+        ProxyRoute[] routes = routes(2);
+        ProxyBalancer balancer = new ProxyBalancer(null, routes, exits(2), new int[] { 1, 1 }, new int[][] { { 0 }, { 1 } },
+            System::nanoTime);
+
+        assertThat(balancer.select(routes[0], null), sameInstance(routes[0]));
+        assertThat(balancer.select(routes[0], null), sameInstance(routes[0]));
+    }
+
+    @Test
+    public void shouldSelectWeightedRoundRobin()
+    {
+        ProxyRoute[] routes = routes(3);
+        int[][] pools = new int[][] { { 0, 1 }, { 0, 1 }, { 2 } };
+        ProxyBalancer balancer = new ProxyBalancer("weighted", routes, exits(3), new int[] { 3, 1, 1 }, pools, System::nanoTime);
+
+        int[] selections = new int[2];
+        for (int i = 0; i < 8; i++)
+        {
+            selections[balancer.select(routes[0], null).index]++;
+        }
+
+        assertThat(selections[0], equalTo(6));
+        assertThat(selections[1], equalTo(2));
+    }
+
+    @Test
+    public void shouldSelectLeastConnections()
+    {
+        ProxyRoute[] routes = routes(3);
+        int[][] pools = new int[][] { { 0, 1 }, { 0, 1 }, { 2 } };
+        ProxyBalancer balancer = new ProxyBalancer("least-connections", routes, exits(3),
+            new int[] { 1, 1, 1 }, pools, System::nanoTime);
+
+        balancer.onOpened(0);
+        assertThat(balancer.select(routes[0], null), sameInstance(routes[1]));
+
+        balancer.onOpened(1);
+        balancer.onOpened(1);
+        assertThat(balancer.select(routes[0], null), sameInstance(routes[0]));
+
+        balancer.onClosed(1);
+        balancer.onClosed(1);
+        assertThat(balancer.active(1), equalTo(0));
+        assertThat(balancer.select(routes[0], null), sameInstance(routes[1]));
+    }
+
+    @Test
+    public void shouldSelectSameRouteForSameSource()
+    {
+        ProxyRoute[] routes = routes(3);
+        int[][] pools = new int[][] { { 0, 1, 2 }, { 0, 1, 2 }, { 0, 1, 2 } };
+        ProxyBalancer balancer = new ProxyBalancer("source-hash", routes, exits(3), new int[] { 1, 1, 1 }, pools,
+            System::nanoTime);
+
+        ProxyRoute selected = balancer.select(routes[0], beginEx(0x0a000001, 32768));
+
+        assertThat(balancer.select(routes[0], beginEx(0x0a000001, 32769)), sameInstance(selected));
+        assertThat(balancer.select(routes[1], beginEx(0x0a000001, 32770)), sameInstance(selected));
+    }
+
+    @Test
+    public void shouldRemapFewSourcesWhenExitAdded()
+    {
+        ProxyRoute[] routes = routes(5);
+        int[][] pools4 = new int[][] { { 0, 1, 2, 3 }, { 0, 1, 2, 3 }, { 0, 1, 2, 3 }, { 0, 1, 2, 3 }, { 4 } };
+        int[] pool = new int[] { 0, 1, 2, 3, 4 };
+        int[][] pools5 = new int[][] { pool, pool, pool, pool, pool };
+        int[] weights = new int[] { 1, 1, 1, 1, 1 };
+        ProxyBalancer balancer4 = new ProxyBalancer("source-hash", routes, exits(5), weights, pools4, System::nanoTime);
+        ProxyBalancer balancer5 = new ProxyBalancer("source-hash", routes, exits(5), weights, pools5, System::nanoTime);
+
+        int remapped = 0;
+        for (int source = 0; source < 1000; source++)
+        {
+            ProxyRoute before = balancer4.select(routes[0], beginEx(0x0a000000 + source, 32768));
+            ProxyRoute after = balancer5.select(routes[0], beginEx(0x0a000000 + source, 32768));
+            if (before != after)
+            {
+                assertThat(after, sameInstance(routes[4]));
+                remapped++;
+            }
+        }
+
+        assertThat(remapped, lessThan(400));
+    }
+
+    @Test
+    public void shouldFailoverToNextHealthyRoute()
+    {
+        ProxyRoute[] routes = routes(4);
+        int[] pool = new int[] { 0, 1, 2 };
+        int[][] pools = new int[][] { pool, pool, pool, { 3 } };
+        ProxyBalancer balancer = new ProxyBalancer("weighted", routes, exits(4), new int[] { 1, 1, 1, 1 }, pools,
+            System::nanoTime);
+
+        assertThat(balancer.failover(0), sameInstance(routes[1]));
+        assertThat(balancer.failover(2), sameInstance(routes[0]));
+        assertThat(balancer.failover(3), nullValue());
+        assertThat(balancer.pooled(0), equalTo(true));
+        assertThat(balancer.pooled(3), equalTo(false));
+    }
+
+    @Test
+    public void shouldSkipUnhealthyRouteUntilBackoffExpires()
+    {
+        long[] now = new long[1];
+        ProxyRoute[] routes = routes(3);
+        int[] pool = new int[] { 0, 1, 2 };
+        int[][] pools = new int[][] { pool, pool, pool };
+        ProxyBalancer balancer = new ProxyBalancer("least-connections", routes, exits(3), new int[] { 1, 1, 1 }, pools,
+            () -> now[0]);
+
+        balancer.onRejected(0);
+        balancer.onRejected(0);
+        assertThat(balancer.healthy(0), equalTo(true));
+
+        balancer.onRejected(0);
+        assertThat(balancer.healthy(0), equalTo(false));
+        assertThat(balancer.failover(2), sameInstance(routes[1]));
+        assertThat(balancer.select(routes[0], null), sameInstance(routes[1]));
+
+        now[0] += SECONDS.toNanos(1L);
+        assertThat(balancer.healthy(0), equalTo(true));
+        assertThat(balancer.select(routes[0], null), sameInstance(routes[0]));
+
+        balancer.onRejected(0);
+        balancer.onRejected(0);
+        balancer.onRejected(0);
+        now[0] += SECONDS.toNanos(1L);
+        assertThat(balancer.healthy(0), equalTo(false));
+
+        now[0] += SECONDS.toNanos(1L);
+        balancer.onAccepted(0);
+        assertThat(balancer.healthy(0), equalTo(true));
+    }
+
+    private ProxyBeginExFW beginEx(
+        int source,
+        int sourcePort)
+    {
+        return new ProxyBeginExFW.Builder().wrap(buffer, 0, buffer.capacity())
+                .typeId(0)
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.put(new byte[] {
+                            (byte) (source >> 24), (byte) (source >> 16), (byte) (source >> 8), (byte) source }))
+                        .destination(d -> d.put(new byte[] { 10, 0, 0, (byte) 254 }))
+                        .sourcePort(sourcePort)
+                        .destinationPort(443)))
+                .build();
+    }
+
+    private static String[] exits(
+        int count)
+    {
+        String[] exits = new String[count];
+        for (int index = 0; index < count; index++)
+        {
+            exits[index] = "app" + index;
+        }
+        return exits;
+    }
+
+    private static ProxyRoute[] routes(
+        int count)
+    {
+        ProxyRoute[] routes = new ProxyRoute[count];
+        for (int index = 0; index < count; index++)
+        {
+            routes[index] = new ProxyRoute(index + 1L, index, emptyList());
+        }
+        return routes;
+    }
+}
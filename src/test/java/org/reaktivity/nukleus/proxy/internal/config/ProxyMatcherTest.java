@@ -574,6 +574,251 @@ public class ProxyMatcherTest
         assertFalse(matcher.matches(beginEx));
     }
 
+    @Test
+    public void shouldMatchConditionWithInetSourceHostSuffix()
+    {
+        ProxyCondition condition = new ProxyCondition(null, "inet", new ProxyAddress("*.example.com", null), null, null);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source("client-1.example.com")
+                        .destination("www.example.com")
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertTrue(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldNotMatchConditionWithInetSourceHostSuffix()
+    {
+        ProxyCondition condition = new ProxyCondition(null, "inet", new ProxyAddress("*.example.net", null), null, null);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source("client-1.example.com")
+                        .destination("www.example.com")
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertFalse(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldMatchConditionWithInetSourceHostWildcards()
+    {
+        ProxyCondition condition = new ProxyCondition(null, "inet", new ProxyAddress("client-*.*.com", null), null, null);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source("client-1.example.com")
+                        .destination("www.example.com")
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertTrue(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldMatchConditionWithInetSourceHostExact()
+    {
+        ProxyCondition condition = new ProxyCondition(null, "inet", new ProxyAddress("client-1.example.com", null), null, null);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source("client-1.example.com")
+                        .destination("www.example.com")
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertTrue(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldNotMatchConditionWithInetSourceHostExactDotWildcard()
+    {
+        ProxyCondition condition = new ProxyCondition(null, "inet", new ProxyAddress("client-1-example.com", null), null, null);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source("client-1.example.com")
+                        .destination("www.example.com")
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertFalse(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldMatchConditionWithInetDestinationHostSuffix()
+    {
+        ProxyCondition condition = new ProxyCondition(null, "inet", null, new ProxyAddress("*.example.com", null), null);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source("client-1.example.com")
+                        .destination("www.example.com")
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertTrue(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldNotMatchConditionWithInetDestinationHostPrefix()
+    {
+        ProxyCondition condition = new ProxyCondition(null, "inet", null, new ProxyAddress("server.*", null), null);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source("client-1.example.com")
+                        .destination("www.example.com")
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertFalse(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldMatchConditionWithAlpnAndSecureInfos()
+    {
+        ProxySecureInfo secure = new ProxySecureInfo("TLSv1.3", null, null, "localhost", null);
+        ProxyInfo info = new ProxyInfo("echo", null, null, null, secure);
+        ProxyCondition condition = new ProxyCondition(null, null, null, null, info);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .infosItem(i -> i.secure(s -> s.name("localhost")))
+                .infosItem(i -> i.authority("example.com"))
+                .infosItem(i -> i.alpn("echo"))
+                .infosItem(i -> i.secure(s -> s.protocol("TLSv1.3")))
+                .build();
+
+        assertTrue(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldNotMatchConditionWithRepeatedAlpn()
+    {
+        ProxyInfo info = new ProxyInfo("echo", "example.com", null, null, null);
+        ProxyCondition condition = new ProxyCondition(null, null, null, null, info);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .infosItem(i -> i.alpn("echo"))
+                .infosItem(i -> i.alpn("echo"))
+                .build();
+
+        assertFalse(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldNotMatchConditionWithAlpnPrefix()
+    {
+        ProxyInfo info = new ProxyInfo("echo", null, null, null, null);
+        ProxyCondition condition = new ProxyCondition(null, null, null, null, info);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .infosItem(i -> i.alpn("echoes"))
+                .build();
+
+        assertFalse(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldMatchConditionWithSourceHostname()
+    {
+        ProxyCondition condition = new ProxyCondition(null, null, new ProxyAddress("localhost", 32768), null, null);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("127.0.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertTrue(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldMatchConditionWithDestinationHostname()
+    {
+        ProxyCondition condition = new ProxyCondition(null, null, null, new ProxyAddress("localhost", 443), null);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("127.0.0.1")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertTrue(matcher.matches(beginEx));
+    }
+
+    @Test
+    public void shouldNotMatchConditionWithSourceHostname()
+    {
+        ProxyCondition condition = new ProxyCondition(null, null, new ProxyAddress("localhost", 32768), null, null);
+        ProxyMatcher matcher = new ProxyMatcher(condition);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertFalse(matcher.matches(beginEx));
+    }
+
     private static byte[] resolveHost(
         String host)
     {
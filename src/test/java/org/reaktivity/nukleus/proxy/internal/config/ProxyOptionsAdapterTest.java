@@ -20,6 +20,8 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 
+import java.util.Collections;
+
 import javax.json.bind.Jsonb;
 import javax.json.bind.JsonbBuilder;
 import javax.json.bind.JsonbConfig;
@@ -59,4 +61,133 @@ public class ProxyOptionsAdapterTest
         assertThat(text, not(nullValue()));
         assertThat(text, equalTo("{}"));
     }
+
+    @Test
+    public void shouldReadOptionsWithVersion()
+    {
+        String text = "{\"version\":1}";
+
+        ProxyOptions options = jsonb.fromJson(text, ProxyOptions.class);
+
+        assertThat(options, not(nullValue()));
+        assertThat(options.version, equalTo(1));
+    }
+
+    @Test
+    public void shouldWriteOptionsWithVersion()
+    {
+        ProxyOptions options = new ProxyOptions(1);
+
+        String text = jsonb.toJson(options);
+
+        assertThat(text, not(nullValue()));
+        assertThat(text, equalTo("{\"version\":1}"));
+    }
+
+    @Test
+    public void shouldReadOptionsWithHeaderTimeout()
+    {
+        String text = "{\"headerTimeout\":5000}";
+
+        ProxyOptions options = jsonb.fromJson(text, ProxyOptions.class);
+
+        assertThat(options, not(nullValue()));
+        assertThat(options.version, equalTo(2));
+        assertThat(options.headerTimeout, equalTo(5000L));
+    }
+
+    @Test
+    public void shouldWriteOptionsWithHeaderTimeout()
+    {
+        ProxyOptions options = new ProxyOptions(2, 5000L);
+
+        String text = jsonb.toJson(options);
+
+        assertThat(text, not(nullValue()));
+        assertThat(text, equalTo("{\"headerTimeout\":5000}"));
+    }
+
+    @Test
+    public void shouldReadOptionsWithBalanceAndWeights()
+    {
+        String text = "{\"balance\":\"weighted\",\"weights\":{\"app0\":3}}";
+
+        ProxyOptions options = jsonb.fromJson(text, ProxyOptions.class);
+
+        assertThat(options, not(nullValue()));
+        assertThat(options.balance, equalTo("weighted"));
+        assertThat(options.weights.get("app0"), equalTo(3));
+    }
+
+    @Test
+    public void shouldWriteOptionsWithBalanceAndWeights()
+    {
+        ProxyOptions options = new ProxyOptions(2, 0L, "weighted", Collections.singletonMap("app0", 3));
+
+        String text = jsonb.toJson(options);
+
+        assertThat(text, not(nullValue()));
+        assertThat(text, equalTo("{\"balance\":\"weighted\",\"weights\":{\"app0\":3}}"));
+    }
+
+    @Test
+    public void shouldReadOptionsWithSourcePortHashBalance()
+    {
+        String text = "{\"balance\":\"source-port-hash\"}";
+
+        ProxyOptions options = jsonb.fromJson(text, ProxyOptions.class);
+
+        assertThat(options, not(nullValue()));
+        assertThat(options.balance, equalTo("source-port-hash"));
+    }
+
+    @Test
+    public void shouldReadOptionsWithLocal()
+    {
+        String text = "{\"local\":{\"payload\":\"OK\\n\"}}";
+
+        ProxyOptions options = jsonb.fromJson(text, ProxyOptions.class);
+
+        assertThat(options, not(nullValue()));
+        assertThat(options.local, not(nullValue()));
+        assertThat(options.local.payload, equalTo("OK\n"));
+    }
+
+    @Test
+    public void shouldWriteOptionsWithLocal()
+    {
+        ProxyOptions options = new ProxyOptions(2, 0L, null, Collections.emptyMap(), new ProxyLocal(null), null);
+
+        String text = jsonb.toJson(options);
+
+        assertThat(text, not(nullValue()));
+        assertThat(text, equalTo("{\"local\":{}}"));
+    }
+
+    @Test
+    public void shouldReadOptionsWithRateLimit()
+    {
+        String text = "{\"rateLimit\":{\"rate\":100,\"burst\":200,\"inet4Prefix\":24}}";
+
+        ProxyOptions options = jsonb.fromJson(text, ProxyOptions.class);
+
+        assertThat(options, not(nullValue()));
+        assertThat(options.rateLimit, not(nullValue()));
+        assertThat(options.rateLimit.rate, equalTo(100));
+        assertThat(options.rateLimit.burst, equalTo(200));
+        assertThat(options.rateLimit.inet4Prefix, equalTo(24));
+        assertThat(options.rateLimit.inet6Prefix, equalTo(64));
+    }
+
+    @Test
+    public void shouldWriteOptionsWithRateLimit()
+    {
+        ProxyOptions options = new ProxyOptions(2, 0L, null, Collections.emptyMap(), null,
+            new ProxyRateLimit(100, 100, 32, 48));
+
+        String text = jsonb.toJson(options);
+
+        assertThat(text, not(nullValue()));
+        assertThat(text, equalTo("{\"rateLimit\":{\"rate\":100,\"inet6Prefix\":48}}"));
+    }
 }
@@ -0,0 +1,382 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.config;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertSame;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressProtocol.DATAGRAM;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressProtocol.STREAM;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+import org.agrona.LangUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
+
+public class ProxyRouteTableTest
+{
+    private ProxyBeginExFW.Builder builder;
+
+    @Before
+    public void initBuilder()
+    {
+        MutableDirectBuffer buffer = new UnsafeBuffer(new byte[1024]);
+        builder = new ProxyBeginExFW.Builder().wrap(buffer, 0, buffer.capacity())
+            .typeId(0);
+    }
+
+    @Test
+    public void shouldResolveFirstMatchingRoute()
+    {
+        ProxyRoute inet6 = route(1L, new ProxyCondition(null, "inet6", null, null, null));
+        ProxyRoute first = route(2L, new ProxyCondition(null, "inet4", null, null, null));
+        ProxyRoute second = route(3L, new ProxyCondition("stream", null, null, null, null));
+        ProxyRoute exit = route(4L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(inet6, first, second), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(first, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveRouteByDestinationPort()
+    {
+        ProxyRoute http = route(1L, new ProxyCondition(null, null, null, new ProxyAddress(null, 80), null));
+        ProxyRoute https = route(2L, new ProxyCondition(null, null, null, new ProxyAddress(null, 443), null));
+        ProxyRoute any = route(3L, new ProxyCondition(null, "inet4", null, null, null));
+        ProxyRoute exit = route(4L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(http, https, any), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(https, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveRouteWithoutDestinationPort()
+    {
+        ProxyRoute https = route(1L, new ProxyCondition(null, null, null, new ProxyAddress(null, 443), null));
+        ProxyRoute any = route(2L, new ProxyCondition(null, "inet4", null, null, null));
+        ProxyRoute exit = route(3L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(https, any), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(80)))
+                .build();
+
+        assertSame(any, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveExitWhenTransportMismatched()
+    {
+        ProxyRoute datagram = route(1L, new ProxyCondition("datagram", null, null, null, null));
+        ProxyRoute exit = route(2L);
+        ProxyRouteTable table = new ProxyRouteTable(singletonList(datagram), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(exit, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveDatagramRoute()
+    {
+        ProxyRoute stream = route(1L, new ProxyCondition("stream", null, null, null, null));
+        ProxyRoute datagram = route(2L, new ProxyCondition("datagram", null, null, null, null));
+        ProxyRoute exit = route(3L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(stream, datagram), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet6(i -> i
+                        .protocol(p -> p.set(DATAGRAM))
+                        .source(s -> s.set(resolveHost("fd12:3456:789a:1::1")))
+                        .destination(d -> d.set(resolveHost("fd12:3456:789a:1::fe")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(datagram, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveUnixRouteIgnoringDestinationPort()
+    {
+        ProxyRoute inet = route(1L, new ProxyCondition(null, "inet4", null, null, null));
+        ProxyRoute unix = route(2L, new ProxyCondition(null, "unix", null, new ProxyAddress("unix-destination", 443), null));
+        ProxyRoute exit = route(3L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(inet, unix), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.unix(u -> u
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(unixAddress("unix-source")))
+                        .destination(d -> d.set(unixAddress("unix-destination")))))
+                .build();
+
+        assertSame(unix, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveNoneRouteWithoutAddressConditions()
+    {
+        ProxyRoute transport = route(1L, new ProxyCondition("stream", null, null, null, null));
+        ProxyRoute none = route(2L, new ProxyCondition(null, "none", null, null, null));
+        ProxyRoute exit = route(3L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(transport, none), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.none(n -> {}))
+                .build();
+
+        assertSame(none, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveFirstRouteBySourcePrefix()
+    {
+        ProxyRoute narrow = route(1L, new ProxyCondition(null, null, new ProxyAddress("192.168.0.0/24", null), null, null));
+        ProxyRoute other = route(2L, new ProxyCondition(null, null, new ProxyAddress("10.0.0.0/8", null), null, null));
+        ProxyRoute wide = route(3L, new ProxyCondition(null, null, new ProxyAddress("192.168.0.0/16", null), null, null));
+        ProxyRoute exit = route(4L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(wide, other, narrow), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(wide, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveRouteBySourcePrefixBeforeLaterRoute()
+    {
+        ProxyRoute port = route(1L, new ProxyCondition(null, null, null, new ProxyAddress(null, 8080), null));
+        ProxyRoute source = route(2L, new ProxyCondition(null, null, new ProxyAddress("192.168.0.0/24", 32768), null, null));
+        ProxyRoute any = route(3L, new ProxyCondition(null, "inet4", null, null, null));
+        ProxyRoute exit = route(4L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(port, source, any), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(source, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveLaterRouteWhenSourcePortMismatched()
+    {
+        ProxyRoute source = route(1L, new ProxyCondition(null, null, new ProxyAddress("192.168.0.0/24", 8080), null, null));
+        ProxyRoute any = route(2L, new ProxyCondition(null, "inet4", null, null, null));
+        ProxyRoute exit = route(3L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(source, any), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(any, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveRouteByDestinationPrefix()
+    {
+        ProxyAddress otherAddress = new ProxyAddress("fd12:3456:789a:2::/64", null);
+        ProxyAddress matchedAddress = new ProxyAddress("fd12:3456:789a:1::/64", null);
+        ProxyRoute other = route(1L, new ProxyCondition(null, null, null, otherAddress, null));
+        ProxyRoute matched = route(2L, new ProxyCondition(null, null, null, matchedAddress, null));
+        ProxyRoute exit = route(3L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(other, matched), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet6(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("fd12:3456:789a:1::1")))
+                        .destination(d -> d.set(resolveHost("fd12:3456:789a:1::fe")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(matched, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveExitWhenSourcePrefixMismatched()
+    {
+        ProxyRoute host = route(1L, new ProxyCondition(null, null, new ProxyAddress("192.168.0.2", null), null, null));
+        ProxyRoute exit = route(2L);
+        ProxyRouteTable table = new ProxyRouteTable(singletonList(host), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.set(resolveHost("192.168.0.1")))
+                        .destination(d -> d.set(resolveHost("192.168.0.254")))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(exit, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveRouteByExactSourceHost()
+    {
+        ProxyRoute suffix = route(1L, new ProxyCondition(null, "inet", new ProxyAddress("*.example.net", null), null, null));
+        ProxyRoute other = route(2L,
+            new ProxyCondition(null, "inet", new ProxyAddress("client-2.example.com", null), null, null));
+        ProxyRoute exact = route(3L,
+            new ProxyCondition(null, "inet", new ProxyAddress("client-1.example.com", null), null, null));
+        ProxyRoute glob = route(4L, new ProxyCondition(null, "inet", new ProxyAddress("*.example.com", null), null, null));
+        ProxyRoute exit = route(5L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(suffix, other, exact, glob), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source("client-1.example.com")
+                        .destination("www.example.com")
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(exact, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveRouteByGlobBeforeExactDestinationHost()
+    {
+        ProxyRoute glob = route(1L, new ProxyCondition(null, "inet", null, new ProxyAddress("*.example.com", null), null));
+        ProxyRoute exact = route(2L, new ProxyCondition(null, "inet", null, new ProxyAddress("www.example.com", null), null));
+        ProxyRoute exit = route(3L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(glob, exact), exit);
+
+        ProxyBeginExFW beginEx = builder
+                .address(a -> a.inet(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source("client-1.example.com")
+                        .destination("www.example.com")
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+
+        assertSame(glob, table.resolve(beginEx));
+    }
+
+    @Test
+    public void shouldResolveUnconditionalRouteWithoutBeginEx()
+    {
+        ProxyRoute transport = route(1L, new ProxyCondition("stream", null, null, null, null));
+        ProxyRoute unconditional = route(2L);
+        ProxyRoute exit = route(3L);
+        ProxyRouteTable table = new ProxyRouteTable(asList(transport, unconditional), exit);
+
+        assertSame(unconditional, table.resolve(null));
+    }
+
+    @Test
+    public void shouldResolveExitWithoutBeginEx()
+    {
+        ProxyRoute transport = route(1L, new ProxyCondition("stream", null, null, null, null));
+        ProxyRoute exit = route(2L);
+        ProxyRouteTable table = new ProxyRouteTable(singletonList(transport), exit);
+
+        assertSame(exit, table.resolve(null));
+    }
+
+    private static ProxyRoute route(
+        long id,
+        ProxyCondition... conditions)
+    {
+        return new ProxyRoute(id, (int) id, conditions.length != 0
+                ? singletonList(new ProxyMatcher(conditions[0]))
+                : emptyList());
+    }
+
+    private static byte[] unixAddress(
+        String path)
+    {
+        return Arrays.copyOf(path.getBytes(), 108);
+    }
+
+    private static byte[] resolveHost(
+        String host)
+    {
+        byte[] address = null;
+
+        try
+        {
+            InetAddress inet = InetAddress.getByName(host);
+            address = inet.getAddress();
+        }
+        catch (UnknownHostException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        return address;
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItems;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reaktivity.nukleus.proxy.internal.types.codec.ProxyAddrFamily;
+import org.reaktivity.nukleus.proxy.internal.types.codec.ProxyAddrProtocol;
+
+public class ProxyCountersTest
+{
+    private final Map<String, long[]> values = new HashMap<>();
+
+    private ProxyCounters counters;
+
+    @Before
+    public void initCounters()
+    {
+        counters = new ProxyCounters(2, this::supplyCounter, this::supplyAccumulator);
+    }
+
+    @Test
+    public void shouldRegisterCounters()
+    {
+        assertThat(values.keySet(), hasItems(
+                "proxy.headers.local",
+                "proxy.headers.proxy",
+                "proxy.tlvs.unknown",
+                "proxy.crc32c.failures",
+                "proxy.version.rejects",
+                "proxy.slot.failures",
+                "proxy.header.timeouts",
+                "proxy.local.replies",
+                "proxy.route.hits",
+                "proxy.route.misses",
+                "proxy.route.failovers",
+                "proxy.route.rate.limited"));
+    }
+
+    @Test
+    public void shouldCountLocalHeader()
+    {
+        counters.onHeader(null, null);
+
+        assertThat(value("proxy.headers.local"), equalTo(1L));
+        assertThat(value("proxy.headers.proxy"), equalTo(0L));
+    }
+
+    @Test
+    public void shouldCountProxyHeaderByFamilyAndTransport()
+    {
+        counters.onHeader(ProxyAddrFamily.INET6, ProxyAddrProtocol.DATAGRAM);
+        counters.onHeader(ProxyAddrFamily.UNIX, ProxyAddrProtocol.STREAM);
+
+        assertThat(value("proxy.headers.proxy"), equalTo(2L));
+        assertThat(value("proxy.headers.inet4"), equalTo(0L));
+        assertThat(value("proxy.headers.inet6"), equalTo(1L));
+        assertThat(value("proxy.headers.unix"), equalTo(1L));
+        assertThat(value("proxy.headers.stream"), equalTo(1L));
+        assertThat(value("proxy.headers.datagram"), equalTo(1L));
+    }
+
+    @Test
+    public void shouldCountTlvsByType()
+    {
+        counters.onTlv(0x01);
+        counters.onTlv(0x20);
+        counters.onTlv(0x20);
+        counters.onTlv(0xe0);
+
+        assertThat(value("proxy.tlvs.alpn"), equalTo(1L));
+        assertThat(value("proxy.tlvs.ssl"), equalTo(2L));
+        assertThat(value("proxy.tlvs.unknown"), equalTo(1L));
+    }
+
+    @Test
+    public void shouldRecordLatencyInBuckets()
+    {
+        counters.headerLatency.record(100L);
+        counters.headerLatency.record(1_500L);
+        counters.headerLatency.record(Long.MAX_VALUE);
+
+        assertThat(value("proxy.header.latency.bucket.00"), equalTo(1L));
+        assertThat(value("proxy.header.latency.bucket.01"), equalTo(1L));
+        assertThat(value("proxy.header.latency.bucket.31"), equalTo(1L));
+        assertThat(value("proxy.resolve.latency.bucket.00"), equalTo(0L));
+    }
+
+    @Test
+    public void shouldCountStreamsAndBytesPerRoute()
+    {
+        counters.routes.onOpened(1);
+        counters.routes.onOpened(1);
+        counters.routes.onInitialData(1, 100);
+        counters.routes.onReplyData(1, 40);
+        counters.routes.onReplyData(1, 60);
+        counters.routes.onClosed(1);
+
+        assertThat(value("proxy.route.0.streams"), equalTo(0L));
+        assertThat(value("proxy.route.1.streams"), equalTo(1L));
+        assertThat(value("proxy.route.1.initial.bytes"), equalTo(100L));
+        assertThat(value("proxy.route.1.initial.frames"), equalTo(1L));
+        assertThat(value("proxy.route.1.reply.bytes"), equalTo(100L));
+        assertThat(value("proxy.route.1.reply.frames"), equalTo(2L));
+    }
+
+    @Test
+    public void shouldSelectHistogramBucket()
+    {
+        assertThat(ProxyHistogram.bucket(0L), equalTo(0));
+        assertThat(ProxyHistogram.bucket(1_023L), equalTo(0));
+        assertThat(ProxyHistogram.bucket(1_024L), equalTo(1));
+        assertThat(ProxyHistogram.bucket(2_048L), equalTo(2));
+        assertThat(ProxyHistogram.bucket(1L << 40), equalTo(31));
+    }
+
+    private LongSupplier supplyCounter(
+        String name)
+    {
+        final long[] value = values.computeIfAbsent(name, n -> new long[1]);
+        return () -> ++value[0];
+    }
+
+    private LongConsumer supplyAccumulator(
+        String name)
+    {
+        final long[] value = values.computeIfAbsent(name, n -> new long[1]);
+        return v -> value[0] += v;
+    }
+
+    private long value(
+        String name)
+    {
+        return values.get(name)[0];
+    }
+}
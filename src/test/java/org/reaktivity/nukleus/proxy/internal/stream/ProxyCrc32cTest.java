@@ -0,0 +1,98 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+public class ProxyCrc32cTest
+{
+    private final Random random = new Random(0x82f63b78L);
+
+    @Test
+    public void shouldMatchCrc32cAtVaryingLengthsAndAlignments()
+    {
+        final byte[] bytes = new byte[1024];
+        random.nextBytes(bytes);
+
+        final MutableDirectBuffer buffer = new UnsafeBuffer(bytes);
+
+        for (int index = 0; index < Long.BYTES; index++)
+        {
+            for (int length = 0; length <= 256; length++)
+            {
+                final CRC32C expected = new CRC32C();
+                expected.update(bytes, index, length);
+
+                final int actual = ProxyCrc32c.update(0, buffer, index, length);
+
+                assertThat(actual, equalTo((int) expected.getValue()));
+            }
+        }
+    }
+
+    @Test
+    public void shouldMatchCrc32cWhenUpdatedIncrementally()
+    {
+        for (int round = 0; round < 100; round++)
+        {
+            final byte[] bytes = new byte[random.nextInt(1024) + 1];
+            random.nextBytes(bytes);
+
+            final MutableDirectBuffer buffer = new UnsafeBuffer(bytes);
+            final int split = random.nextInt(bytes.length + 1);
+
+            final CRC32C expected = new CRC32C();
+            expected.update(bytes, 0, bytes.length);
+
+            int actual = ProxyCrc32c.update(0, buffer, 0, split);
+            actual = ProxyCrc32c.update(actual, buffer, split, bytes.length - split);
+
+            assertThat(actual, equalTo((int) expected.getValue()));
+        }
+    }
+
+    @Test
+    public void shouldMatchCrc32cWithZeros()
+    {
+        final byte[] bytes = new byte[64];
+        random.nextBytes(bytes);
+
+        final MutableDirectBuffer buffer = new UnsafeBuffer(bytes);
+        final int zerosAt = 13;
+
+        int actual = ProxyCrc32c.update(0, buffer, 0, zerosAt);
+        actual = ProxyCrc32c.updateZeros(actual, Integer.BYTES);
+        actual = ProxyCrc32c.update(actual, buffer, zerosAt + Integer.BYTES, bytes.length - zerosAt - Integer.BYTES);
+
+        bytes[zerosAt] = 0;
+        bytes[zerosAt + 1] = 0;
+        bytes[zerosAt + 2] = 0;
+        bytes[zerosAt + 3] = 0;
+
+        final CRC32C expected = new CRC32C();
+        expected.update(bytes, 0, bytes.length);
+
+        assertThat(actual, equalTo((int) expected.getValue()));
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.reaktivity.reaktor.nukleus.buffer.BufferPool.NO_SLOT;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.reaktivity.reaktor.nukleus.buffer.BufferPool;
+
+public class ProxyHeaderArenaTest
+{
+    private final MutableDirectBuffer overflowBuffer = new UnsafeBuffer(new byte[1024]);
+
+    private BufferPool overflowPool;
+    private ProxyHeaderArena arena;
+
+    @Before
+    public void initArena()
+    {
+        overflowPool = mock(BufferPool.class);
+        when(overflowPool.slotCapacity()).thenReturn(1024);
+        when(overflowPool.acquire(1L)).thenReturn(0);
+        when(overflowPool.buffer(0)).thenReturn(overflowBuffer);
+
+        arena = new ProxyHeaderArena(64, 2, overflowPool);
+    }
+
+    @Test
+    public void shouldAcquireAndReleaseCells()
+    {
+        int first = arena.acquire(1L, 64);
+        int second = arena.acquire(1L, 64);
+
+        assertThat(first, not(equalTo(second)));
+        assertThat(arena.capacity(first), equalTo(64));
+        assertThat(arena.acquiredCells(), equalTo(2));
+
+        arena.release(first);
+        arena.release(second);
+
+        assertThat(arena.acquiredCells(), equalTo(0));
+    }
+
+    @Test
+    public void shouldOverflowWhenCellsExhausted()
+    {
+        arena.acquire(1L, 64);
+        arena.acquire(1L, 64);
+
+        int slot = arena.acquire(1L, 64);
+
+        assertThat(slot, not(equalTo(NO_SLOT)));
+        assertThat(arena.capacity(slot), equalTo(1024));
+        assertThat(arena.buffer(slot), sameInstance(overflowBuffer));
+
+        arena.release(slot);
+
+        verify(overflowPool).release(0);
+    }
+
+    @Test
+    public void shouldOverflowWhenCellTooSmall()
+    {
+        int slot = arena.acquire(1L, 65);
+
+        assertThat(arena.buffer(slot), sameInstance(overflowBuffer));
+        assertThat(arena.acquiredCells(), equalTo(0));
+    }
+
+    @Test
+    public void shouldNotAcquireBeyondOverflowCapacity()
+    {
+        assertThat(arena.acquire(1L, 1025), equalTo(NO_SLOT));
+    }
+
+    @Test
+    public void shouldGrowIntoOverflowPreservingContents()
+    {
+        int cell = arena.acquire(1L, 16);
+        arena.buffer(cell).putLong(56, 0x0102030405060708L);
+
+        int slot = arena.grow(1L, cell, 128);
+
+        assertThat(arena.buffer(slot), sameInstance(overflowBuffer));
+        assertThat(overflowBuffer.getLong(56), equalTo(0x0102030405060708L));
+        assertThat(arena.acquiredCells(), equalTo(0));
+    }
+
+    @Test
+    public void shouldNotGrowWhenCapacitySufficient()
+    {
+        int cell = arena.acquire(1L, 16);
+
+        assertThat(arena.grow(1L, cell, 64), equalTo(cell));
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.net.InetAddress;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProxyHostCacheTest
+{
+    private long currentTimeMillis;
+    private ProxyHostCache cache;
+
+    @Before
+    public void initCache()
+    {
+        cache = new ProxyHostCache(2, 1000L, 100L, () -> currentTimeMillis);
+    }
+
+    @Test
+    public void shouldLookupResolvedAddressesUntilExpired() throws Exception
+    {
+        InetAddress[] addresses = { InetAddress.getByAddress(new byte[] { 127, 0, 0, 1 }) };
+
+        cache.cache("localhost", addresses);
+
+        currentTimeMillis += 999L;
+        assertThat(cache.lookup("localhost"), sameInstance(addresses));
+
+        currentTimeMillis += 1L;
+        assertThat(cache.lookup("localhost"), nullValue());
+    }
+
+    @Test
+    public void shouldLookupUnresolvedUntilExpired()
+    {
+        cache.cache("unknown.example.com", null);
+
+        currentTimeMillis += 99L;
+        assertThat(cache.lookup("unknown.example.com"), sameInstance(ProxyHostCache.UNRESOLVED));
+
+        currentTimeMillis += 1L;
+        assertThat(cache.lookup("unknown.example.com"), nullValue());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() throws Exception
+    {
+        InetAddress[] addresses = { InetAddress.getByAddress(new byte[] { 127, 0, 0, 1 }) };
+
+        cache.cache("one.example.com", addresses);
+        cache.cache("two.example.com", addresses);
+        cache.lookup("one.example.com");
+        cache.cache("three.example.com", addresses);
+
+        assertThat(cache.lookup("one.example.com"), sameInstance(addresses));
+        assertThat(cache.lookup("two.example.com"), nullValue());
+        assertThat(cache.lookup("three.example.com"), sameInstance(addresses));
+    }
+
+    @Test
+    public void shouldNotLookupUncached()
+    {
+        assertThat(cache.lookup("localhost"), nullValue());
+    }
+}
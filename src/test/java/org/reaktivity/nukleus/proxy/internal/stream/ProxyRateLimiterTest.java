@@ -0,0 +1,107 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.proxy.internal.types.ProxyAddressProtocol.STREAM;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.reaktivity.nukleus.proxy.internal.config.ProxyRateLimit;
+import org.reaktivity.nukleus.proxy.internal.types.stream.ProxyBeginExFW;
+
+public class ProxyRateLimiterTest
+{
+    private MutableDirectBuffer buffer;
+
+    @Before
+    public void initBuffer()
+    {
+        buffer = new UnsafeBuffer(new byte[1024]);
+    }
+
+    @Test
+    public void shouldLimitSourceAfterBurst()
+    {
+        ProxyRateLimiter limiter = new ProxyRateLimiter(16, new ProxyRateLimit(10, 2, 32, 64));
+
+        assertTrue(limiter.tryAcquire(beginEx(192, 168, 0, 1), 0L));
+        assertTrue(limiter.tryAcquire(beginEx(192, 168, 0, 1), 0L));
+        assertFalse(limiter.tryAcquire(beginEx(192, 168, 0, 1), 0L));
+        assertTrue(limiter.tryAcquire(beginEx(192, 168, 0, 2), 0L));
+    }
+
+    @Test
+    public void shouldRefillTokensOverTime()
+    {
+        ProxyRateLimiter limiter = new ProxyRateLimiter(16, new ProxyRateLimit(10, 1, 32, 64));
+
+        assertTrue(limiter.tryAcquire(beginEx(192, 168, 0, 1), 0L));
+        assertFalse(limiter.tryAcquire(beginEx(192, 168, 0, 1), MILLISECONDS.toNanos(50L)));
+        assertTrue(limiter.tryAcquire(beginEx(192, 168, 0, 1), MILLISECONDS.toNanos(150L)));
+    }
+
+    @Test
+    public void shouldLimitSourcesByPrefix()
+    {
+        ProxyRateLimiter limiter = new ProxyRateLimiter(16, new ProxyRateLimit(10, 1, 24, 64));
+
+        assertTrue(limiter.tryAcquire(beginEx(192, 168, 0, 1), 0L));
+        assertFalse(limiter.tryAcquire(beginEx(192, 168, 0, 2), 0L));
+        assertTrue(limiter.tryAcquire(beginEx(192, 168, 1, 1), 0L));
+    }
+
+    @Test
+    public void shouldEvictSourcesWhenFull()
+    {
+        ProxyRateLimiter limiter = new ProxyRateLimiter(2, new ProxyRateLimit(10, 1, 32, 64));
+
+        for (int source = 0; source < 64; source++)
+        {
+            assertTrue(limiter.tryAcquire(beginEx(10, 0, 0, source), source));
+        }
+    }
+
+    @Test
+    public void shouldNotLimitWithoutAddress()
+    {
+        ProxyRateLimiter limiter = new ProxyRateLimiter(16, new ProxyRateLimit(10, 1, 32, 64));
+
+        assertTrue(limiter.tryAcquire(null, 0L));
+        assertTrue(limiter.tryAcquire(null, 0L));
+    }
+
+    private ProxyBeginExFW beginEx(
+        int a,
+        int b,
+        int c,
+        int d)
+    {
+        return new ProxyBeginExFW.Builder().wrap(buffer, 0, buffer.capacity())
+                .typeId(0)
+                .address(x -> x.inet4(i -> i
+                        .protocol(p -> p.set(STREAM))
+                        .source(s -> s.put(new byte[] { (byte) a, (byte) b, (byte) c, (byte) d }))
+                        .destination(s -> s.put(new byte[] { 10, 0, 0, (byte) 254 }))
+                        .sourcePort(32768)
+                        .destinationPort(443)))
+                .build();
+    }
+}
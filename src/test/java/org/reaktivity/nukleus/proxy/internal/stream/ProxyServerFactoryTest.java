@@ -0,0 +1,284 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.proxy.internal.stream;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.reaktivity.nukleus.proxy.internal.ProxyConfiguration;
+import org.reaktivity.nukleus.proxy.internal.config.ProxyOptions;
+import org.reaktivity.nukleus.proxy.internal.config.ProxyRateLimit;
+import org.reaktivity.nukleus.proxy.internal.types.stream.BeginFW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.DataFW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.ResetFW;
+import org.reaktivity.nukleus.proxy.internal.types.stream.SignalFW;
+import org.reaktivity.reaktor.config.Binding;
+import org.reaktivity.reaktor.config.Role;
+import org.reaktivity.reaktor.config.Route;
+import org.reaktivity.reaktor.nukleus.Configuration;
+import org.reaktivity.reaktor.nukleus.ElektronContext;
+import org.reaktivity.reaktor.nukleus.buffer.BufferPool;
+import org.reaktivity.reaktor.nukleus.concurrent.Signaler;
+import org.reaktivity.reaktor.nukleus.function.MessageConsumer;
+import org.reaktivity.reaktor.nukleus.stream.StreamFactory;
+
+public class ProxyServerFactoryTest
+{
+    private static final DirectBuffer HEADER_V2 = new UnsafeBuffer("\r\n\r\n\0\r\nQUIT\n".getBytes(US_ASCII));
+    private static final DirectBuffer HEADER_V2_TCP4 = new UnsafeBuffer(new byte[]
+    {
+        0x0d, 0x0a, 0x0d, 0x0a, 0x00, 0x0d, 0x0a, 0x51, 0x55, 0x49, 0x54, 0x0a,
+        0x21, 0x11, 0x00, 0x0c,
+        (byte) 0xc0, (byte) 0xa8, 0x00, 0x01,
+        (byte) 0xc0, (byte) 0xa8, 0x00, (byte) 0xfe,
+        (byte) 0x80, 0x00,
+        0x01, (byte) 0xbb
+    });
+
+    private static final long ROUTE_ID = 0x0001_0001_0000_0001L;
+    private static final long EXIT_ID = 0x0001_0002_0000_0002L;
+    private static final long INITIAL_ID = 0x0000_0000_0000_0001L;
+    private static final int HEADER_TIMEOUT_SIGNAL = 1;
+
+    private final BeginFW.Builder beginRW = new BeginFW.Builder();
+    private final DataFW.Builder dataRW = new DataFW.Builder();
+    private final SignalFW.Builder signalRW = new SignalFW.Builder();
+    private final ResetFW.Builder resetRW = new ResetFW.Builder();
+
+    private final MutableDirectBuffer frameBuffer = new UnsafeBuffer(new byte[1024]);
+    private final MutableDirectBuffer payloadBuffer = new UnsafeBuffer(new byte[1024]);
+
+    private final Map<String, AtomicLong> counters = new HashMap<>();
+    private final List<Integer> appFrames = new ArrayList<>();
+
+    private Signaler signaler;
+    private ProxyServerFactory factory;
+
+    @Before
+    public void initFactory()
+    {
+        final BufferPool bufferPool = mock(BufferPool.class);
+        when(bufferPool.slotCapacity()).thenReturn(1024);
+        when(bufferPool.acquire(anyLong())).thenReturn(BufferPool.NO_SLOT);
+
+        signaler = mock(Signaler.class);
+        when(signaler.signalAt(anyLong(), anyLong(), anyLong(), anyInt())).thenReturn(1L);
+
+        final StreamFactory streamFactory = (t, b, i, l, s) -> (mt, mb, mi, ml) -> appFrames.add(mt);
+        final LongConsumer accumulator = value -> {};
+
+        final ElektronContext context = mock(ElektronContext.class);
+        when(context.supplyTypeId(anyString())).thenReturn(1);
+        when(context.supplyInitialId(anyLong())).thenReturn(INITIAL_ID + 2L);
+        when(context.supplyReplyId(anyLong())).thenAnswer(i -> i.<Long>getArgument(0) + 1L);
+        when(context.writeBuffer()).thenReturn(new UnsafeBuffer(new byte[1024]));
+        when(context.bufferPool()).thenReturn(bufferPool);
+        when(context.signaler()).thenReturn(signaler);
+        when(context.streamFactory()).thenReturn(streamFactory);
+        when(context.supplyCounter(anyLong(), anyString())).thenAnswer(i -> counter(i.getArgument(1)));
+        when(context.supplyAccumulator(anyLong(), anyString())).thenReturn(accumulator);
+
+        factory = new ProxyServerFactory(new ProxyConfiguration(new Configuration()), context);
+    }
+
+    @Test
+    public void shouldResetAndCountStalledHeaderOnTimeout()
+    {
+        factory.attach(binding(new ProxyOptions()));
+
+        final List<Integer> netFrames = new ArrayList<>();
+        final MessageConsumer net = doNetBegin(INITIAL_ID, netFrames);
+        doNetData(net, INITIAL_ID, HEADER_V2, 0, HEADER_V2.capacity());
+
+        assertThat(netFrames, not(hasItem(ResetFW.TYPE_ID)));
+
+        doNetSignal(net, INITIAL_ID, HEADER_TIMEOUT_SIGNAL);
+
+        assertThat(netFrames, hasItem(ResetFW.TYPE_ID));
+        assertThat(appFrames.isEmpty(), equalTo(true));
+        assertThat(counters.get("proxy.header.timeouts").get(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldCancelHeaderTimeoutWhenResetMidHeader()
+    {
+        factory.attach(binding(new ProxyOptions()));
+
+        final List<Integer> netFrames = new ArrayList<>();
+        final MessageConsumer net = doNetBegin(INITIAL_ID, netFrames);
+        doNetData(net, INITIAL_ID, HEADER_V2, 0, HEADER_V2.capacity());
+        doNetReset(net, INITIAL_ID + 1L);
+
+        verify(signaler).cancel(1L);
+        assertThat(netFrames, hasItem(ResetFW.TYPE_ID));
+
+        doNetSignal(net, INITIAL_ID, HEADER_TIMEOUT_SIGNAL);
+
+        assertThat(appFrames.isEmpty(), equalTo(true));
+        assertThat(counters.get("proxy.header.timeouts").get(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldResetRateLimitedConnectionBeforeAppBegin()
+    {
+        final ProxyRateLimit rateLimit = new ProxyRateLimit(10, 1, 32, 64);
+        factory.attach(binding(new ProxyOptions(2, 0L, null, emptyMap(), null, rateLimit)));
+
+        final List<Integer> netFrames1 = new ArrayList<>();
+        final MessageConsumer net1 = doNetBegin(INITIAL_ID, netFrames1);
+        doNetData(net1, INITIAL_ID, HEADER_V2_TCP4, 0, HEADER_V2_TCP4.capacity());
+
+        assertThat(netFrames1, not(hasItem(ResetFW.TYPE_ID)));
+        assertThat(appFrames, hasItem(BeginFW.TYPE_ID));
+
+        appFrames.clear();
+
+        final List<Integer> netFrames2 = new ArrayList<>();
+        final MessageConsumer net2 = doNetBegin(INITIAL_ID + 4L, netFrames2);
+        doNetData(net2, INITIAL_ID + 4L, HEADER_V2_TCP4, 0, HEADER_V2_TCP4.capacity());
+
+        assertThat(netFrames2, hasItem(ResetFW.TYPE_ID));
+        assertThat(appFrames.isEmpty(), equalTo(true));
+        assertThat(counters.get("proxy.route.rate.limited").get(), equalTo(1L));
+    }
+
+    private MessageConsumer doNetBegin(
+        long initialId,
+        List<Integer> netFrames)
+    {
+        final BeginFW begin = beginRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .routeId(ROUTE_ID)
+                .streamId(initialId)
+                .sequence(0L)
+                .acknowledge(0L)
+                .maximum(0)
+                .traceId(0L)
+                .authorization(0L)
+                .affinity(0L)
+                .build();
+
+        final MessageConsumer net = factory.newStream(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof(),
+            (t, b, i, l) -> netFrames.add(t));
+        net.accept(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
+
+        return net;
+    }
+
+    private void doNetData(
+        MessageConsumer net,
+        long initialId,
+        DirectBuffer payload,
+        int offset,
+        int length)
+    {
+        payloadBuffer.putBytes(0, payload, offset, length);
+
+        final DataFW data = dataRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .routeId(ROUTE_ID)
+                .streamId(initialId)
+                .sequence(0L)
+                .acknowledge(0L)
+                .maximum(0)
+                .traceId(0L)
+                .authorization(0L)
+                .flags(0x03)
+                .budgetId(0L)
+                .reserved(length)
+                .payload(payloadBuffer, 0, length)
+                .build();
+
+        net.accept(data.typeId(), data.buffer(), data.offset(), data.sizeof());
+    }
+
+    private void doNetSignal(
+        MessageConsumer net,
+        long initialId,
+        int signalId)
+    {
+        final SignalFW signal = signalRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .routeId(ROUTE_ID)
+                .streamId(initialId)
+                .sequence(0L)
+                .acknowledge(0L)
+                .maximum(0)
+                .traceId(0L)
+                .authorization(0L)
+                .cancelId(1L)
+                .signalId(signalId)
+                .build();
+
+        net.accept(signal.typeId(), signal.buffer(), signal.offset(), signal.sizeof());
+    }
+
+    private void doNetReset(
+        MessageConsumer net,
+        long replyId)
+    {
+        final ResetFW reset = resetRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .routeId(ROUTE_ID)
+                .streamId(replyId)
+                .sequence(0L)
+                .acknowledge(0L)
+                .maximum(0)
+                .traceId(0L)
+                .authorization(0L)
+                .build();
+
+        net.accept(reset.typeId(), reset.buffer(), reset.offset(), reset.sizeof());
+    }
+
+    private LongSupplier counter(
+        String name)
+    {
+        return counters.computeIfAbsent(name, n -> new AtomicLong())::incrementAndGet;
+    }
+
+    private static Binding binding(
+        ProxyOptions options)
+    {
+        final Route exit = new Route(0, "app#0");
+        exit.id = EXIT_ID;
+
+        final Binding binding = new Binding(null, "net#0", "proxy", Role.SERVER, options, emptyList(), exit);
+        binding.id = ROUTE_ID;
+
+        return binding;
+    }
+}
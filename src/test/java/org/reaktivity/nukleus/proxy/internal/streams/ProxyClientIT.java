@@ -38,7 +38,8 @@ public class ProxyClientIT
 {
     private final K3poRule k3po = new K3poRule()
         .addScriptRoot("app", "org/reaktivity/specification/nukleus/proxy/streams/application")
-        .addScriptRoot("net", "org/reaktivity/specification/nukleus/proxy/streams/network.v2");
+        .addScriptRoot("net", "org/reaktivity/specification/nukleus/proxy/streams/network.v2")
+        .addScriptRoot("netv1", "org/reaktivity/specification/nukleus/proxy/streams/network.v1");
 
     private final TestRule timeout = new DisableOnDebug(new Timeout(10, SECONDS));
 
@@ -351,6 +352,79 @@ public class ProxyClientIT
         k3po.finish();
     }
 
+    @Test
+    @Configuration("client.json")
+    @Specification({
+        "${app}/connected.tcp4.header.coalesced/client",
+        "${net}/connected.tcp4.header.coalesced/server"})
+    @Configure(name = "nukleus.proxy.header.flush.delay", value = "5000")
+    public void shouldCoalesceHeaderWithFirstData() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("client.v1.json")
+    @Specification({
+        "${app}/connected.v1.tcp4/client",
+        "${netv1}/connected.tcp4/server"})
+    public void shouldConnectV1Tcp4() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("client.v1.json")
+    @Specification({
+        "${app}/connected.v1.tcp6/client",
+        "${netv1}/connected.tcp6.expanded/server"})
+    public void shouldConnectV1Tcp6() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("client.v1.json")
+    @Specification({
+        "${app}/connected.v1.unknown/client",
+        "${netv1}/connected.unknown/server"})
+    public void shouldConnectV1Unknown() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("client.v1.json")
+    @Specification({
+        "${app}/connected.v1.sock.stream/client",
+        "${netv1}/connected.sock.stream/server"})
+    public void shouldConnectV1SockStreamAsUnknown() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("client.json")
+    @Specification({
+        "${app}/connected.tcp4.bulk.data/client",
+        "${net}/connected.tcp4.bulk.data/server"})
+    @Configure(name = "nukleus.proxy.relay.in.place", value = "true")
+    public void shouldExchangeBulkDataWithRelayInPlace() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("client.json")
+    @Specification({
+        "${app}/connected.tcp4.bulk.data/client",
+        "${net}/connected.tcp4.bulk.data/server"})
+    @Configure(name = "nukleus.proxy.relay.in.place", value = "false")
+    public void shouldExchangeBulkDataWithoutRelayInPlace() throws Exception
+    {
+        k3po.finish();
+    }
+
     public static InetAddress[] resolveInet4(
         String host)
     {
@@ -27,11 +27,13 @@ import org.kaazing.k3po.junit.annotation.Specification;
 import org.kaazing.k3po.junit.rules.K3poRule;
 import org.reaktivity.reaktor.test.ReaktorRule;
 import org.reaktivity.reaktor.test.annotation.Configuration;
+import org.reaktivity.reaktor.test.annotation.Configure;
 
 public class ProxyServerIT
 {
     private final K3poRule k3po = new K3poRule()
         .addScriptRoot("net", "org/reaktivity/specification/nukleus/proxy/streams/network.v2")
+        .addScriptRoot("netv1", "org/reaktivity/specification/nukleus/proxy/streams/network.v1")
         .addScriptRoot("app", "org/reaktivity/specification/nukleus/proxy/streams/application");
 
     private final TestRule timeout = new DisableOnDebug(new Timeout(10, SECONDS));
@@ -43,6 +45,7 @@ public class ProxyServerIT
         .counterValuesBufferCapacity(4096)
         .configurationRoot("org/reaktivity/specification/nukleus/proxy/config")
         .external("app#0")
+        .external("app#1")
         .clean();
 
     @Rule
@@ -338,6 +341,37 @@ public class ProxyServerIT
         k3po.finish();
     }
 
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${net}/connected.tcp4.tlv.single.frame/client",
+        "${app}/connected.tcp4.tlv.single.frame/server"})
+    public void shouldConnectTcp4WithTlvsInSingleFrame() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${net}/connected.tcp6.tlv.single.frame/client",
+        "${app}/connected.tcp6.tlv.single.frame/server"})
+    public void shouldConnectTcp6WithTlvsInSingleFrame() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Configure(name = "reaktor.buffer.slot.capacity", value = "1024")
+    @Specification({
+        "${net}/connected.tcp4.tlv.oversized/client",
+        "${app}/connected.tcp4.tlv.oversized/server"})
+    public void shouldConnectTcp4SkippingTlvLargerThanSlot() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Configuration("server.json")
     @Specification({
@@ -466,4 +500,191 @@ public class ProxyServerIT
     {
         k3po.finish();
     }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/connected.tcp4/client",
+        "${app}/connected.v1.tcp4/server"})
+    public void shouldConnectV1Tcp4() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/connected.tcp4.fragmented/client",
+        "${app}/connected.v1.tcp4/server"})
+    public void shouldConnectV1Tcp4Fragmented() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/connected.tcp6/client",
+        "${app}/connected.v1.tcp6/server"})
+    public void shouldConnectV1Tcp6() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/connected.tcp6.compressed/client",
+        "${app}/connected.v1.tcp6.compressed/server"})
+    public void shouldConnectV1Tcp6Compressed() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/connected.tcp6.inet4/client",
+        "${app}/connected.v1.tcp6.inet4/server"})
+    public void shouldConnectV1Tcp6WithEmbeddedInet4() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/connected.unknown/client",
+        "${app}/connected.v1.unknown/server"})
+    public void shouldConnectV1Unknown() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/rejected.tcp4.malformed/client"})
+    public void shouldRejectV1Tcp4Malformed() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/rejected.tcp6.malformed/client"})
+    public void shouldRejectV1Tcp6Malformed() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/rejected.port.overflow/client"})
+    public void shouldRejectV1PortOverflow() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/rejected.family.mismatch/client"})
+    public void shouldRejectV1FamilyMismatch() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${netv1}/rejected.header.overflow/client"})
+    public void shouldRejectV1HeaderOverflow() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Configure(name = "nukleus.proxy.header.timeout", value = "500")
+    @Specification({
+        "${net}/rejected.header.timeout/client"})
+    public void shouldRejectStalledHeaderAfterTimeout() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${net}/connected.tcp4.bulk.data/client",
+        "${app}/connected.tcp4.bulk.data/server"})
+    @Configure(name = "nukleus.proxy.relay.in.place", value = "true")
+    public void shouldExchangeBulkDataWithRelayInPlace() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.json")
+    @Specification({
+        "${net}/connected.tcp4.bulk.data/client",
+        "${app}/connected.tcp4.bulk.data/server"})
+    @Configure(name = "nukleus.proxy.relay.in.place", value = "false")
+    public void shouldExchangeBulkDataWithoutRelayInPlace() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.failover.json")
+    @Configure(name = "nukleus.proxy.failover.retries", value = "1")
+    @Specification({
+        "${net}/connected.tcp4.failover/client",
+        "${app}/connected.tcp4.failover/server"})
+    public void shouldFailoverWhenRejected() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.failover.json")
+    @Configure(name = "nukleus.proxy.failover.retries", value = "1")
+    @Specification({
+        "${net}/connected.tcp4.end.deferred/client",
+        "${app}/connected.tcp4.end.deferred/server"})
+    public void shouldDeferEndUntilDecodedDataFlushed() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.local.json")
+    @Specification({
+        "${net}/connected.local.reply/client"})
+    public void shouldReplyLocal() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.local.json")
+    @Specification({
+        "${net}/connected.local.reply.fragmented/client"})
+    public void shouldReplyLocalWhenFragmented() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configuration("server.local.json")
+    @Specification({
+        "${netv1}/connected.unknown/client",
+        "${app}/connected.v1.unknown/server"})
+    public void shouldConnectV1UnknownWithLocalReply() throws Exception
+    {
+        k3po.finish();
+    }
 }